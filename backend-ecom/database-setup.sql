@@ -20,7 +20,11 @@ CREATE TABLE IF NOT EXISTS categories (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     nom VARCHAR(255) NOT NULL UNIQUE,
     description TEXT,
-    INDEX idx_nom (nom)
+    parent_id BIGINT,
+    chemin VARCHAR(255),
+    INDEX idx_nom (nom),
+    INDEX idx_category_chemin (chemin),
+    FOREIGN KEY (parent_id) REFERENCES categories(id)
 );
 
 -- Table des produits
@@ -32,10 +36,15 @@ CREATE TABLE IF NOT EXISTS products (
     image_url VARCHAR(500),
     stock INT NOT NULL DEFAULT 0,
     category_id BIGINT,
+    archived BOOLEAN NOT NULL DEFAULT FALSE,
+    date_archivage DATETIME(6),
     FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE SET NULL,
     INDEX idx_nom (nom),
     INDEX idx_stock (stock),
-    INDEX idx_category (category_id)
+    INDEX idx_category (category_id),
+    INDEX idx_products_category_stock_prix (category_id, stock, prix),
+    INDEX idx_products_prix_id (prix, id),
+    INDEX idx_products_nom_id (nom, id)
 );
 
 -- Table des articles du panier
@@ -44,9 +53,11 @@ CREATE TABLE IF NOT EXISTS cart_items (
     user_id BIGINT NOT NULL,
     product_id BIGINT NOT NULL,
     quantite INT NOT NULL,
+    derniere_activite DATETIME(6),
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
     FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE,
-    UNIQUE KEY unique_user_product (user_id, product_id)
+    UNIQUE KEY unique_user_product (user_id, product_id),
+    INDEX idx_cart_user_activite (user_id, derniere_activite)
 );
 
 -- Table des commandes
@@ -85,6 +96,38 @@ CREATE TABLE IF NOT EXISTS payments (
     INDEX idx_date (date)
 );
 
+-- Journal des modifications du catalogue (synchronisation incrémentale des clients)
+CREATE TABLE IF NOT EXISTS catalog_changes (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    type_entite VARCHAR(20) NOT NULL,
+    entite_id BIGINT NOT NULL,
+    operation VARCHAR(20) NOT NULL,
+    date_changement DATETIME(6) NOT NULL,
+    INDEX idx_catalog_change_date (date_changement)
+);
+
+-- Compteurs de popularité des produits (vidés par lots depuis la mémoire)
+CREATE TABLE IF NOT EXISTS product_stats (
+    product_id BIGINT PRIMARY KEY,
+    vues BIGINT NOT NULL DEFAULT 0,
+    ajouts_panier BIGINT NOT NULL DEFAULT 0,
+    achats BIGINT NOT NULL DEFAULT 0,
+    score_tendance DOUBLE NOT NULL DEFAULT 0,
+    date_maj DATETIME(6) NOT NULL
+);
+
+-- Abonnements aux alertes de retour en stock (supprimés une fois l'alerte envoyée)
+CREATE TABLE IF NOT EXISTS stock_subscriptions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    date_creation DATETIME(6) NOT NULL,
+    UNIQUE KEY unique_subscription_user_product (user_id, product_id),
+    INDEX idx_subscription_product_id (product_id, id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE
+);
+
 -- Insérer un utilisateur admin par défaut
 INSERT INTO users (nom, email, mot_de_passe, role) VALUES 
 ('Admin', 'admin@shopie.com', '$2a$10$92IXUNpkjO0rOQ5byMi.Ye4oKoEa3Ro9llC/.og/at2.uheWG/igi', 'ADMIN')
@@ -0,0 +1,27 @@
+-- Script de mise à jour de la table cart_items
+-- À exécuter sur les bases créées par Hibernate (ddl-auto) avant la contrainte unique
+
+-- Fusionner les lignes en double (même utilisateur, même produit) dans la plus ancienne
+UPDATE cart_items c
+JOIN (
+    SELECT MIN(id) AS keep_id, user_id, product_id, SUM(quantite) AS total_quantite
+    FROM cart_items
+    GROUP BY user_id, product_id
+    HAVING COUNT(*) > 1
+) d ON c.id = d.keep_id
+SET c.quantite = d.total_quantite;
+
+DELETE c FROM cart_items c
+JOIN cart_items k ON k.user_id = c.user_id AND k.product_id = c.product_id AND k.id < c.id;
+
+-- Une seule ligne par (utilisateur, produit) : nécessaire pour INSERT ... ON DUPLICATE KEY UPDATE
+ALTER TABLE cart_items
+ADD CONSTRAINT unique_user_product UNIQUE (user_id, product_id);
+
+-- Date de dernière activité, utilisée par la purge des paniers abandonnés
+ALTER TABLE cart_items
+ADD COLUMN derniere_activite DATETIME(6);
+
+UPDATE cart_items SET derniere_activite = NOW() WHERE derniere_activite IS NULL;
+
+CREATE INDEX idx_cart_user_activite ON cart_items (user_id, derniere_activite);
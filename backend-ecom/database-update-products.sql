@@ -0,0 +1,49 @@
+-- Script de mise à jour de la table products
+
+-- Index composites pour le catalogue paginé par curseur (filtre catégorie/stock, tri prix/nom + id)
+CREATE INDEX idx_products_category_stock_prix ON products (category_id, stock, prix);
+CREATE INDEX idx_products_prix_id ON products (prix, id);
+CREATE INDEX idx_products_nom_id ON products (nom, id);
+
+-- Journal des modifications du catalogue (synchronisation incrémentale des clients)
+CREATE TABLE IF NOT EXISTS catalog_changes (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    type_entite VARCHAR(20) NOT NULL,
+    entite_id BIGINT NOT NULL,
+    operation VARCHAR(20) NOT NULL,
+    date_changement DATETIME(6) NOT NULL,
+    INDEX idx_catalog_change_date (date_changement)
+);
+
+-- Compteurs de popularité des produits (vidés par lots depuis la mémoire)
+CREATE TABLE IF NOT EXISTS product_stats (
+    product_id BIGINT PRIMARY KEY,
+    vues BIGINT NOT NULL DEFAULT 0,
+    ajouts_panier BIGINT NOT NULL DEFAULT 0,
+    achats BIGINT NOT NULL DEFAULT 0,
+    score_tendance DOUBLE NOT NULL DEFAULT 0,
+    date_maj DATETIME(6) NOT NULL
+);
+
+-- Abonnements aux alertes de retour en stock (supprimés une fois l'alerte envoyée)
+CREATE TABLE IF NOT EXISTS stock_subscriptions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    date_creation DATETIME(6) NOT NULL,
+    UNIQUE KEY unique_subscription_user_product (user_id, product_id),
+    INDEX idx_subscription_product_id (product_id, id),
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE
+);
+
+-- Hiérarchie des catégories : parent et chemin matérialisé (« /1/4/9/ »)
+ALTER TABLE categories ADD COLUMN parent_id BIGINT;
+ALTER TABLE categories ADD COLUMN chemin VARCHAR(255);
+ALTER TABLE categories ADD CONSTRAINT fk_category_parent FOREIGN KEY (parent_id) REFERENCES categories(id);
+UPDATE categories SET chemin = CONCAT('/', id, '/') WHERE chemin IS NULL;
+CREATE INDEX idx_category_chemin ON categories (chemin);
+
+-- Suppression logique des produits (l'historique des commandes garde ses produits)
+ALTER TABLE products ADD COLUMN archived BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE products ADD COLUMN date_archivage DATETIME(6);
@@ -1,6 +1,7 @@
 package com.shopie.backend.controller;
 
 import com.shopie.backend.dto.CartItemRequest;
+import com.shopie.backend.dto.CartResponse;
 import com.shopie.backend.model.CartItem;
 import com.shopie.backend.model.User;
 import com.shopie.backend.service.CartService;
@@ -13,8 +14,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/cart")
@@ -26,19 +25,19 @@ public class CartController {
     private CartService cartService;
     
     @GetMapping
-    @Operation(summary = "Voir le panier", description = "Récupère les articles du panier de l'utilisateur connecté")
-    public ResponseEntity<List<CartItem>> getCartItems(Authentication authentication) {
+    @Operation(summary = "Voir le panier", description = "Récupère les articles du panier de l'utilisateur connecté avec les totaux calculés côté serveur")
+    public ResponseEntity<CartResponse> getCartItems(Authentication authentication) {
         User user = (User) authentication.getPrincipal();
-        List<CartItem> cartItems = cartService.getCartItems(user);
-        return ResponseEntity.ok(cartItems);
+        CartResponse cart = cartService.getCartView(user);
+        return ResponseEntity.ok(cart);
     }
     
     @PostMapping
-    @Operation(summary = "Ajouter au panier", description = "Ajoute un produit au panier")
-    public ResponseEntity<CartItem> addToCart(Authentication authentication, @Valid @RequestBody CartItemRequest request) {
+    @Operation(summary = "Ajouter au panier", description = "Ajoute un produit au panier et renvoie le panier mis à jour")
+    public ResponseEntity<CartResponse> addToCart(Authentication authentication, @Valid @RequestBody CartItemRequest request) {
         User user = (User) authentication.getPrincipal();
-        CartItem cartItem = cartService.addToCart(user, request);
-        return ResponseEntity.ok(cartItem);
+        CartResponse cart = cartService.addToCart(user, request);
+        return ResponseEntity.ok(cart);
     }
     
     @PutMapping("/{cartItemId}")
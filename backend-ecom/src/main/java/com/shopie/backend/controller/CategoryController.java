@@ -1,6 +1,9 @@
 package com.shopie.backend.controller;
 
+import com.shopie.backend.dto.CategoryJobResponse;
 import com.shopie.backend.model.Category;
+import com.shopie.backend.service.CatalogCache;
+import com.shopie.backend.service.CatalogResponseCache;
 import com.shopie.backend.service.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -10,6 +13,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -22,18 +26,26 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
     
+    @Autowired
+    private CatalogCache catalogCache;
+    
+    @Autowired
+    private CatalogResponseCache responseCache;
+    
     @GetMapping
     @Operation(summary = "Récupérer toutes les catégories")
-    public ResponseEntity<List<Category>> getAllCategories() {
-        List<Category> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<byte[]> getAllCategories(WebRequest request) {
+        long version = catalogCache.getVersion();
+        return ConditionalGet.encoded(request, responseCache, "catalog", version, "categories",
+                categoryService::getAllCategories);
     }
     
     @GetMapping("/{id}")
     @Operation(summary = "Récupérer une catégorie par ID")
-    public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
-        Category category = categoryService.getCategoryById(id);
-        return ResponseEntity.ok(category);
+    public ResponseEntity<Category> getCategoryById(@PathVariable Long id, WebRequest request) {
+        long version = catalogCache.getVersion();
+        return ConditionalGet.of(request, ConditionalGet.etag("catalog", version),
+                () -> categoryService.getCategoryById(id));
     }
     
     @GetMapping("/search")
@@ -59,11 +71,30 @@ public class CategoryController {
         return ResponseEntity.ok(updatedCategory);
     }
     
+    @PutMapping("/{id}/parent")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Déplacer une catégorie (Admin uniquement)", description = "Rattache la catégorie et ses sous-catégories à parentId, ou à la racine sans parentId")
+    public ResponseEntity<Category> moveCategory(@PathVariable Long id, @RequestParam(required = false) Long parentId) {
+        Category movedCategory = categoryService.moveCategory(id, parentId);
+        return ResponseEntity.ok(movedCategory);
+    }
+    
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Supprimer une catégorie (Admin uniquement)")
-    public ResponseEntity<Void> deleteCategory(@PathVariable Long id) {
-        categoryService.deleteCategory(id);
-        return ResponseEntity.noContent().build();
+    @Operation(summary = "Supprimer une catégorie (Admin uniquement)", description = "Les produits sont rattachés à targetCategoryId, ou restent sans catégorie. Pour une grande catégorie, renvoie 202 et la tâche de fond à suivre sur /categories/jobs/{jobId}")
+    public ResponseEntity<CategoryJobResponse> deleteCategory(@PathVariable Long id,
+                                                              @RequestParam(required = false) Long targetCategoryId) {
+        CategoryJobResponse job = categoryService.deleteCategory(id, targetCategoryId);
+        if (job == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+    
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Suivre une suppression de catégorie (Admin uniquement)")
+    public ResponseEntity<CategoryJobResponse> getJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(categoryService.getJob(jobId));
     }
 }
\ No newline at end of file
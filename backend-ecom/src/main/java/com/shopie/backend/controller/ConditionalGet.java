@@ -0,0 +1,118 @@
+package com.shopie.backend.controller;
+
+import com.shopie.backend.service.CatalogResponseCache;
+import com.shopie.backend.service.CatalogResponseCache.EncodedResponse;
+import com.shopie.backend.service.CatalogResponseCache.Encoding;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * GET conditionnel pour le catalogue public : l'ETag est calculé à partir d'une version
+ * en mémoire, et If-None-Match est vérifié avant tout accès à la base.
+ * Les clients doivent revalider à chaque affichage (no-cache), ce qui coûte un 304 sans corps.
+ * Pas de Last-Modified : HTTP date à la seconde, et deux versions dans la même seconde
+ * donneraient un 304 à tort à un client qui n'envoie que If-Modified-Since.
+ */
+final class ConditionalGet {
+    
+    static final CacheControl CATALOG_CACHE_CONTROL = CacheControl.noCache().cachePublic();
+    
+    private ConditionalGet() {
+    }
+    
+    static String etag(String prefix, long version) {
+        return "\"" + prefix + "-" + version + "\"";
+    }
+    
+    // Empreinte d'une liste de valeurs (ids demandés), sans collision pratique contrairement à hashCode
+    static String digest(Collection<?> values) {
+        String joined = values.stream().map(String::valueOf).collect(Collectors.joining(","));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(joined.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    static <T> ResponseEntity<T> of(WebRequest request, String etag, Supplier<T> body) {
+        // checkNotModified positionne déjà l'ETag et le statut 304 sur la réponse
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CATALOG_CACHE_CONTROL).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CATALOG_CACHE_CONTROL)
+                .body(body.get());
+    }
+    
+    // Lecture passée en POST (liste d'ids trop longue pour l'URL) : checkNotModified répondrait 412
+    // à une méthode non sûre, If-None-Match est donc comparé ici et donne un 304 comme en GET
+    static <T> ResponseEntity<T> ofPost(WebRequest request, String etag, Supplier<T> body) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CATALOG_CACHE_CONTROL)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CATALOG_CACHE_CONTROL)
+                .body(body.get());
+    }
+    
+    // Comparaison faible (RFC 9110) : le préfixe W/ est ignoré
+    private static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Variante pour les listes du catalogue : le corps JSON (compressé ou non) sort du cache tel quel
+    static ResponseEntity<byte[]> encoded(WebRequest request, CatalogResponseCache cache, String prefix, long version,
+                                          String name, Supplier<?> body) {
+        Encoding encoding = Encoding.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        // Chaque codage est une représentation distincte : l'ETag fort doit donc différer
+        String etag = encoding.getHeader() == null
+                ? etag(prefix, version)
+                : "\"" + prefix + "-" + version + "-" + encoding.getHeader() + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(CATALOG_CACHE_CONTROL)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        EncodedResponse response = cache.get(version, name, body);
+        byte[] bytes = response.bytes(encoding);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CATALOG_CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(bytes.length);
+        if (encoding.getHeader() != null) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, encoding.getHeader());
+        }
+        return builder.body(bytes);
+    }
+}
@@ -1,27 +1,39 @@
 package com.shopie.backend.controller;
 
+import com.shopie.backend.service.ImageMetadataCache;
+import com.shopie.backend.service.ImageMetadataCache.ImageMetadata;
+import com.shopie.backend.service.ImageVariantService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.http.HttpRange;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -29,9 +41,27 @@ import java.util.UUID;
 @Tag(name = "Images", description = "API de gestion des images")
 public class ImageController {
 
+    // Les noms de fichiers (UUID) ne changent jamais de contenu
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+    // Original servi à la place d'une variante pas encore prête : à revalider
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePublic();
+
+    // Attributs de requête sendfile de Tomcat ; en dessous de ce seuil (celui du DefaultServlet), la copie directe est plus rapide
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     @Value("${app.upload.dir:uploads/images}")
     private String uploadDir;
 
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private ImageMetadataCache imageMetadataCache;
+
     @PostMapping("/upload")
     @PreAuthorize("hasRole('ADMIN')")
     @SecurityRequirement(name = "bearerAuth")
@@ -60,6 +90,9 @@ public class ImageController {
             Path filePath = uploadPath.resolve(uniqueFilename);
             Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
 
+            // Miniatures générées en arrière-plan
+            imageVariantService.generate(uniqueFilename);
+
             // Retourner l'URL de l'image
             String imageUrl = "/images/" + uniqueFilename;
             Map<String, String> response = new HashMap<>();
@@ -77,30 +110,88 @@ public class ImageController {
     }
 
     @GetMapping("/{filename}")
-    @Operation(summary = "Récupérer une image", description = "Récupère une image par son nom de fichier")
-    public ResponseEntity<Resource> getImage(@PathVariable String filename) {
-        try {
-            Path filePath = Paths.get(uploadDir).resolve(filename);
-            Resource resource = new UrlResource(filePath.toUri());
+    @Operation(summary = "Récupérer une image", description = "Récupère une image par son nom de fichier. Avec size (thumb, card, detail), renvoie la variante redimensionnée, ou l'original tant qu'elle n'est pas prête. Gère Range, ETag et If-None-Match")
+    public void getImage(@PathVariable String filename,
+                         @RequestParam(required = false) String size,
+                         HttpServletRequest request,
+                         HttpServletResponse response) throws IOException {
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path filePath = root.resolve(filename).normalize();
+        if (!root.equals(filePath.getParent())) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        // Seule une réponse définitive (original, ou variante prête) peut être mise en cache sans revalidation
+        boolean immutable = true;
+        if (size != null) {
+            Path variantPath = imageVariantService.resolve(filename, ImageVariantService.Variant.fromParam(size));
+            if (variantPath != null) {
+                filePath = variantPath;
+            } else {
+                immutable = false;
+            }
+        }
 
-            if (resource.exists() && resource.isReadable()) {
-                // Déterminer le type de contenu
-                String contentType = Files.probeContentType(filePath);
-                if (contentType == null) {
-                    contentType = "application/octet-stream";
+        ImageMetadata image = imageMetadataCache.get(filePath);
+        if (image == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, (immutable ? IMMUTABLE : REVALIDATE).getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // checkNotModified positionne déjà ETag, Last-Modified et le statut 304 sur la réponse
+        if (new ServletWebRequest(request, response).checkNotModified(image.etag(), image.lastModified())) {
+            return;
+        }
+        response.setContentType(image.contentType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
+
+        long start = 0;
+        long length = image.length();
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // Plusieurs plages, en-tête Range illisible ou If-Range périmé : l'image entière est renvoyée
+        if (range != null && (ifRange == null || ifRange.equals(image.etag()))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            if (ranges.size() == 1) {
+                HttpRange httpRange = ranges.get(0);
+                long end;
+                try {
+                    start = httpRange.getRangeStart(image.length());
+                    end = httpRange.getRangeEnd(image.length());
+                } catch (IllegalArgumentException e) {
+                    end = -1;
                 }
+                if (start >= image.length() || end < start) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + image.length());
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                length = end - start + 1;
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + start + "-" + (start + length - 1) + "/" + image.length());
+            }
+        }
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
 
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
+        try {
+            transfer(image, start, length, request, response);
+        } catch (NoSuchFileException e) {
+            // Fichier supprimé hors de l'application : l'entrée en cache est périmée
+            imageMetadataCache.evict(image.path());
+            if (!response.isCommitted()) {
+                response.reset();
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
             }
-        } catch (MalformedURLException e) {
-            return ResponseEntity.badRequest().build();
-        } catch (IOException e) {
-            return ResponseEntity.internalServerError().build();
         }
     }
 
@@ -114,6 +205,8 @@ public class ImageController {
             
             if (Files.exists(filePath)) {
                 Files.delete(filePath);
+                imageVariantService.delete(filename);
+                imageMetadataCache.evict(filePath);
                 Map<String, String> response = new HashMap<>();
                 response.put("message", "Image supprimée avec succès");
                 return ResponseEntity.ok(response);
@@ -129,6 +222,30 @@ public class ImageController {
         }
     }
 
+    // Envoi sans copie en espace utilisateur : sendfile par Tomcat quand le connecteur le permet,
+    // sinon FileChannel.transferTo vers le flux de la réponse
+    private void transfer(ImageMetadata image, long start, long length, HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        if (length >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, image.path().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(image.path(), StandardOpenOption.READ)) {
+            WritableByteChannel output = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long end = start + length;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, output);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+
     private boolean isImageFile(MultipartFile file) {
         String contentType = file.getContentType();
         return contentType != null && (
@@ -0,0 +1,123 @@
+package com.shopie.backend.controller;
+
+import com.shopie.backend.service.AbandonedCartService;
+import com.shopie.backend.service.ArchivedProductPurgeService;
+import com.shopie.backend.service.CatalogCache;
+import com.shopie.backend.service.CatalogResponseCache;
+import com.shopie.backend.service.ImageMetadataCache;
+import com.shopie.backend.service.ImageVariantService;
+import com.shopie.backend.service.ProductCoPurchaseIndex;
+import com.shopie.backend.service.ProductPopularityTracker;
+import com.shopie.backend.service.StockAlertService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/admin/maintenance")
+@Tag(name = "Maintenance", description = "Tâches de fond et métriques (Admin uniquement)")
+@PreAuthorize("hasRole('ADMIN')")
+@SecurityRequirement(name = "bearerAuth")
+public class MaintenanceController {
+    
+    @Autowired
+    private AbandonedCartService abandonedCartService;
+    
+    @Autowired
+    private CatalogCache catalogCache;
+    
+    @Autowired
+    private CatalogResponseCache responseCache;
+    
+    @Autowired
+    private ProductCoPurchaseIndex coPurchaseIndex;
+    
+    @Autowired
+    private ProductPopularityTracker popularityTracker;
+    
+    @Autowired
+    private StockAlertService stockAlertService;
+    
+    @Autowired
+    private ArchivedProductPurgeService archivedProductPurgeService;
+    
+    @Autowired
+    private ImageVariantService imageVariantService;
+    
+    @Autowired
+    private ImageMetadataCache imageMetadataCache;
+    
+    @GetMapping("/cart-reaper")
+    @Operation(summary = "Métriques de purge des paniers", description = "Lignes parcourues et supprimées par la purge des paniers abandonnés")
+    public ResponseEntity<Map<String, Object>> getCartReaperStats() {
+        return ResponseEntity.ok(abandonedCartService.getStats());
+    }
+    
+    @PostMapping("/cart-reaper/run")
+    @Operation(summary = "Lancer la purge des paniers", description = "Exécute immédiatement la purge des paniers abandonnés")
+    public ResponseEntity<Map<String, Object>> runCartReaper() {
+        abandonedCartService.purgeIdleCarts();
+        return ResponseEntity.ok(abandonedCartService.getStats());
+    }
+    
+    @GetMapping("/archive-purge")
+    @Operation(summary = "Métriques de purge des produits supprimés", description = "Lignes de panier et alertes de stock supprimées pour les produits archivés")
+    public ResponseEntity<Map<String, Object>> getArchivePurgeStats() {
+        return ResponseEntity.ok(archivedProductPurgeService.getStats());
+    }
+    
+    @PostMapping("/archive-purge/run")
+    @Operation(summary = "Lancer la purge des produits supprimés", description = "Supprime immédiatement les lignes de panier et alertes des produits archivés")
+    public ResponseEntity<Map<String, Object>> runArchivePurge() {
+        archivedProductPurgeService.purge();
+        return ResponseEntity.ok(archivedProductPurgeService.getStats());
+    }
+    
+    @GetMapping("/image-variants")
+    @Operation(summary = "Métriques des variantes d'images", description = "Miniatures générées, en file, refusées (file pleine) ou en échec, et cache des métadonnées des fichiers servis")
+    public ResponseEntity<Map<String, Object>> getImageVariantStats() {
+        Map<String, Object> stats = imageVariantService.getStats();
+        stats.put("metadata", imageMetadataCache.getStats());
+        return ResponseEntity.ok(stats);
+    }
+    
+    @GetMapping("/catalog-cache")
+    @Operation(summary = "Métriques du cache catalogue", description = "Version du catalogue, taille, hits/misses et évictions du cache (entités, listes et réponses sérialisées)")
+    public ResponseEntity<Map<String, Object>> getCatalogCacheStats() {
+        Map<String, Object> stats = catalogCache.getStats();
+        stats.put("responses", responseCache.getStats());
+        return ResponseEntity.ok(stats);
+    }
+    
+    @GetMapping("/co-purchase")
+    @Operation(summary = "Métriques des achats associés", description = "Taille de la matrice de co-achat et durée de la dernière reconstruction")
+    public ResponseEntity<Map<String, Object>> getCoPurchaseStats() {
+        return ResponseEntity.ok(coPurchaseIndex.getStats());
+    }
+    
+    @GetMapping("/popularity")
+    @Operation(summary = "Métriques des compteurs de popularité", description = "Produits en attente d'écriture, produits classés et dernier vidage vers product_stats")
+    public ResponseEntity<Map<String, Object>> getPopularityStats() {
+        return ResponseEntity.ok(popularityTracker.getStats());
+    }
+    
+    @GetMapping("/stock-alerts")
+    @Operation(summary = "Métriques des alertes de stock", description = "Réapprovisionnements reçus, fusionnés, abonnés prévenus et destination configurée")
+    public ResponseEntity<Map<String, Object>> getStockAlertStats() {
+        return ResponseEntity.ok(stockAlertService.getStats());
+    }
+    
+    @PostMapping("/co-purchase/rebuild")
+    @Operation(summary = "Reconstruire les achats associés", description = "Relit l'historique des commandes en partitions parallèles et remplace l'index")
+    public ResponseEntity<Map<String, Object>> rebuildCoPurchase() {
+        coPurchaseIndex.rebuild();
+        return ResponseEntity.ok(coPurchaseIndex.getStats());
+    }
+}
@@ -1,17 +1,46 @@
 package com.shopie.backend.controller;
 
+import com.shopie.backend.dto.CatalogChangesResponse;
+import com.shopie.backend.dto.ProductBatchResponse;
+import com.shopie.backend.dto.ProductBulkUpdateRequest;
+import com.shopie.backend.dto.ProductBulkUpdateResponse;
+import com.shopie.backend.dto.ProductFilterResponse;
+import com.shopie.backend.dto.ProductImportResponse;
+import com.shopie.backend.dto.ProductListItem;
+import com.shopie.backend.dto.ProductSort;
+import com.shopie.backend.dto.SuggestionResponse;
 import com.shopie.backend.model.Product;
+import com.shopie.backend.service.CatalogCache;
+import com.shopie.backend.service.CatalogChangeService;
+import com.shopie.backend.service.CatalogResponseCache;
+import com.shopie.backend.service.ProductBulkUpdateService;
+import com.shopie.backend.service.ProductCoPurchaseIndex;
+import com.shopie.backend.service.ProductPopularityTracker;
+import com.shopie.backend.service.ProductImportService;
 import com.shopie.backend.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -22,46 +51,170 @@ public class ProductController {
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private CatalogCache catalogCache;
+    
+    @Autowired
+    private CatalogResponseCache responseCache;
+    
+    @Autowired
+    private ProductImportService productImportService;
+    
+    @Autowired
+    private ProductBulkUpdateService productBulkUpdateService;
+    
+    @Autowired
+    private CatalogChangeService catalogChangeService;
+    
     @GetMapping
-    @Operation(summary = "Lister tous les produits", description = "Récupère la liste de tous les produits")
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    @Operation(summary = "Lister tous les produits", description = "Récupère la liste de tous les produits sous forme de cartes (sans description complète ; ETag, 304 si inchangée)")
+    public ResponseEntity<byte[]> getAllProducts(WebRequest request) {
+        long version = catalogCache.getVersion();
+        return ConditionalGet.encoded(request, responseCache, "catalog", version, "products",
+                productService::getAllProducts);
+    }
+    
+    @GetMapping("/page")
+    @Operation(summary = "Catalogue paginé", description = "Récupère une page de produits triés (id, price, name, newest) avec un curseur pour la page suivante (valable pour le même tri et le même sens). Les endpoints non paginés restent disponibles pour les anciens clients.")
+    public ResponseEntity<byte[]> getProductPage(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "false") boolean available,
+            @RequestParam(defaultValue = "ID") ProductSort sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            WebRequest request) {
+        long version = catalogCache.getVersion();
+        String name = "page:" + categoryId + ":" + available + ":" + sort + ":" + direction + ":" + cursor + ":" + limit;
+        return ConditionalGet.encoded(request, responseCache, "catalog", version, name,
+                () -> productService.getProductPage(categoryId, available, sort, direction, cursor, limit));
     }
     
     @GetMapping("/available")
-    @Operation(summary = "Lister les produits disponibles", description = "Récupère la liste des produits en stock")
-    public ResponseEntity<List<Product>> getAvailableProducts() {
-        List<Product> products = productService.getAvailableProducts();
-        return ResponseEntity.ok(products);
+    @Operation(summary = "Lister les produits disponibles", description = "Récupère la liste des produits en stock (ETag, 304 si inchangée)")
+    public ResponseEntity<byte[]> getAvailableProducts(WebRequest request) {
+        long version = catalogCache.getVersion();
+        return ConditionalGet.encoded(request, responseCache, "catalog", version, "available",
+                productService::getAvailableProducts);
+    }
+    
+    @GetMapping("/trending")
+    @Operation(summary = "Produits en tendance", description = "Produits les plus vus, ajoutés au panier et achetés récemment (score à décroissance exponentielle, mis à jour toutes les 30 secondes)")
+    public ResponseEntity<List<ProductListItem>> getTrending(@RequestParam(defaultValue = "20") int limit) {
+        int maxItems = Math.max(1, Math.min(limit, ProductPopularityTracker.MAX_TRENDING));
+        return ResponseEntity.ok(productService.getTrending(maxItems));
+    }
+    
+    @GetMapping("/batch")
+    @Operation(summary = "Récupérer plusieurs produits", description = "Récupère jusqu'à 500 produits par leurs IDs (ids=1,2,3), dans l'ordre demandé, et liste les IDs introuvables")
+    public ResponseEntity<ProductBatchResponse> getProductsByIds(@RequestParam List<Long> ids, WebRequest request) {
+        return ConditionalGet.of(request, batchEtag(ids), () -> productService.getProductsByIds(ids));
+    }
+    
+    @PostMapping("/batch")
+    @Operation(summary = "Récupérer plusieurs produits (liste longue)", description = "Variante POST de /products/batch : le corps est la liste des IDs (même ETag, 304 si inchangée)")
+    public ResponseEntity<ProductBatchResponse> getProductsByIdsPost(@RequestBody List<Long> ids, WebRequest request) {
+        return ConditionalGet.ofPost(request, batchEtag(ids), () -> productService.getProductsByIds(ids));
+    }
+    
+    // La réponse change dès qu'un des produits demandés change ; la liste est identifiée par son empreinte
+    private String batchEtag(List<Long> ids) {
+        long version = ids.stream().filter(Objects::nonNull).mapToLong(catalogCache::getProductVersion).max().orElse(0);
+        return ConditionalGet.etag("batch-" + ConditionalGet.digest(ids), version);
+    }
+    
+    @GetMapping("/changes")
+    @Operation(summary = "Synchronisation incrémentale", description = "Renvoie les produits et catégories créés, modifiés ou supprimés depuis la version since, et la nouvelle version. Sans since (ou version trop ancienne), renvoie le catalogue complet avec fullResync=true. Si hasMore, rappeler avec la version reçue.")
+    public ResponseEntity<CatalogChangesResponse> getCatalogChanges(
+            @RequestParam(required = false) Long since,
+            @RequestParam(defaultValue = "500") int limit) {
+        int maxChanges = Math.max(1, Math.min(limit, CatalogChangeService.MAX_CHANGES));
+        return ResponseEntity.ok(catalogChangeService.getChanges(since, maxChanges));
     }
     
     @GetMapping("/{id}")
-    @Operation(summary = "Récupérer un produit", description = "Récupère un produit par son ID")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        Product product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+    @Operation(summary = "Récupérer un produit", description = "Récupère la fiche complète d'un produit par son ID (ETag propre au produit, 304 si inchangé)")
+    public ResponseEntity<Product> getProductById(@PathVariable Long id, WebRequest request) {
+        productService.recordView(id);
+        long version = catalogCache.getProductVersion(id);
+        return ConditionalGet.of(request, ConditionalGet.etag("product-" + id, version),
+                () -> productService.getProductById(id));
+    }
+    
+    @GetMapping("/{id}/also-bought")
+    @Operation(summary = "Les clients ont aussi acheté", description = "Produits le plus souvent commandés avec ce produit (au plus 20)")
+    public ResponseEntity<List<ProductListItem>> getAlsoBought(@PathVariable Long id, @RequestParam(defaultValue = "10") int limit) {
+        int maxItems = Math.max(1, Math.min(limit, ProductCoPurchaseIndex.TOP_N));
+        return ResponseEntity.ok(productService.getAlsoBought(id, maxItems));
     }
     
     @GetMapping("/search")
-    @Operation(summary = "Rechercher des produits", description = "Recherche des produits par nom")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String nom) {
-        List<Product> products = productService.searchProducts(nom);
+    @Operation(summary = "Rechercher des produits", description = "Recherche insensible aux accents sur le nom, la description et la catégorie, triée par pertinence. Avec fuzzy=true, tolère les fautes de frappe sur les noms de produits et de catégories.")
+    public ResponseEntity<Page<ProductListItem>> searchProducts(
+            @RequestParam String nom,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        int pageSize = Math.max(1, Math.min(size, ProductService.MAX_PAGE_SIZE));
+        Page<ProductListItem> products = productService.searchProducts(nom, fuzzy, PageRequest.of(Math.max(page, 0), pageSize));
         return ResponseEntity.ok(products);
     }
     
+    @GetMapping("/filter")
+    @Operation(summary = "Filtrer le catalogue", description = "Filtre par catégories, tranche de prix, disponibilité et texte, avec le nombre de produits par facette. Sans tri, les résultats d'une recherche texte sont classés par pertinence.")
+    public ResponseEntity<ProductFilterResponse> filterProducts(
+            @RequestParam(required = false) Set<Long> categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) ProductSort sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        int pageSize = Math.max(1, Math.min(size, ProductService.MAX_PAGE_SIZE));
+        ProductFilterResponse response = productService.filterProducts(categoryId, minPrice, maxPrice, inStock, q, sort,
+                direction, PageRequest.of(Math.max(page, 0), pageSize));
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/suggest")
+    @Operation(summary = "Suggestions de recherche", description = "Autocomplétion sur les noms de produits et de catégories, les plus vendus d'abord")
+    public ResponseEntity<List<SuggestionResponse>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limit) {
+        List<SuggestionResponse> suggestions = productService.suggest(q, Math.max(1, Math.min(limit, 10)));
+        return ResponseEntity.ok(suggestions);
+    }
+    
     @GetMapping("/category/{categoryId}")
-    @Operation(summary = "Produits par catégorie", description = "Récupère tous les produits d'une catégorie")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable Long categoryId) {
-        List<Product> products = productService.getProductsByCategory(categoryId);
-        return ResponseEntity.ok(products);
+    @Operation(summary = "Produits par catégorie", description = "Récupère tous les produits d'une catégorie, et de ses sous-catégories avec subcategories=true")
+    public ResponseEntity<byte[]> getProductsByCategory(
+            @PathVariable Long categoryId,
+            @RequestParam(defaultValue = "false") boolean subcategories,
+            WebRequest request) {
+        long version = catalogCache.getVersion();
+        if (subcategories) {
+            return ConditionalGet.encoded(request, responseCache, "catalog", version, "category-tree:" + categoryId,
+                    () -> productService.getProductsByCategoryTree(categoryId, false));
+        }
+        return ConditionalGet.encoded(request, responseCache, "catalog", version, "category:" + categoryId,
+                () -> productService.getProductsByCategory(categoryId));
     }
     
     @GetMapping("/category/{categoryId}/available")
-    @Operation(summary = "Produits disponibles par catégorie", description = "Récupère les produits en stock d'une catégorie")
-    public ResponseEntity<List<Product>> getAvailableProductsByCategory(@PathVariable Long categoryId) {
-        List<Product> products = productService.getAvailableProductsByCategory(categoryId);
-        return ResponseEntity.ok(products);
+    @Operation(summary = "Produits disponibles par catégorie", description = "Récupère les produits en stock d'une catégorie, et de ses sous-catégories avec subcategories=true")
+    public ResponseEntity<byte[]> getAvailableProductsByCategory(
+            @PathVariable Long categoryId,
+            @RequestParam(defaultValue = "false") boolean subcategories,
+            WebRequest request) {
+        long version = catalogCache.getVersion();
+        if (subcategories) {
+            return ConditionalGet.encoded(request, responseCache, "catalog", version, "category-tree:" + categoryId + ":available",
+                    () -> productService.getProductsByCategoryTree(categoryId, true));
+        }
+        return ConditionalGet.encoded(request, responseCache, "catalog", version, "category:" + categoryId + ":available",
+                () -> productService.getAvailableProductsByCategory(categoryId));
     }
     
     @PostMapping
@@ -73,6 +226,31 @@ public class ProductController {
         return ResponseEntity.ok(createdProduct);
     }
     
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Importer des produits en masse", description = "Importe un catalogue en CSV (en-tête : nom, prix, description, stock, imageUrl, categorie, id optionnel) ou en NDJSON, lu en flux. Une ligne avec un id met à jour le produit existant. Renvoie le rapport des lignes rejetées ; 409 si un import est déjà en cours (Admin uniquement)")
+    public ResponseEntity<ProductImportResponse> importProducts(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) {
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        ProductImportService.Format format = contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? ProductImportService.Format.NDJSON
+                : ProductImportService.Format.CSV;
+        ProductImportResponse report = productImportService.importProducts(new InputStreamReader(body, charset), format);
+        return ResponseEntity.ok(report);
+    }
+    
+    @PostMapping("/bulk-update")
+    @PreAuthorize("hasRole('ADMIN')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Modifier prix ou stock en masse", description = "Applique une opération (SET_PRICE, PERCENT_PRICE, SET_STOCK, DELTA_STOCK) aux produits filtrés par catégorie, ids et plage de stock. Avec preview=true, rien n'est écrit et la réponse annonce les modifications (Admin uniquement)")
+    public ResponseEntity<ProductBulkUpdateResponse> bulkUpdate(
+            @Valid @RequestBody ProductBulkUpdateRequest request,
+            @RequestParam(defaultValue = "false") boolean preview) {
+        return ResponseEntity.ok(productBulkUpdateService.update(request, preview));
+    }
+    
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @SecurityRequirement(name = "bearerAuth")
@@ -0,0 +1,47 @@
+package com.shopie.backend.controller;
+
+import com.shopie.backend.model.User;
+import com.shopie.backend.service.StockAlertService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/stock-alerts")
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Stock alerts", description = "Alertes de retour en stock")
+public class StockAlertController {
+    
+    @Autowired
+    private StockAlertService stockAlertService;
+    
+    @GetMapping
+    @Operation(summary = "Mes alertes", description = "IDs des produits pour lesquels l'utilisateur attend un retour en stock")
+    public ResponseEntity<List<Long>> getMyAlerts(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return ResponseEntity.ok(stockAlertService.getSubscribedProductIds(user));
+    }
+    
+    @PostMapping("/{productId}")
+    @Operation(summary = "S'abonner au retour en stock", description = "L'utilisateur sera prévenu une fois quand ce produit en rupture sera réapprovisionné")
+    public ResponseEntity<?> subscribe(Authentication authentication, @PathVariable Long productId) {
+        User user = (User) authentication.getPrincipal();
+        stockAlertService.subscribe(user, productId);
+        return ResponseEntity.ok().build();
+    }
+    
+    @DeleteMapping("/{productId}")
+    @Operation(summary = "Annuler l'alerte", description = "Supprime l'alerte de retour en stock de ce produit")
+    public ResponseEntity<?> unsubscribe(Authentication authentication, @PathVariable Long productId) {
+        User user = (User) authentication.getPrincipal();
+        stockAlertService.unsubscribe(user, productId);
+        return ResponseEntity.ok().build();
+    }
+}
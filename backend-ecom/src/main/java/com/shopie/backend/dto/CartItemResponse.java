@@ -0,0 +1,26 @@
+package com.shopie.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemResponse {
+    private Long id;
+    private Integer quantite;
+    private CartProductResponse product;
+    private BigDecimal lineTotal;
+    
+    // Constructeur utilisé par la projection JPQL (ligne du panier + champs du produit)
+    public CartItemResponse(Long id, Integer quantite, Long productId, String nom,
+                            BigDecimal prix, String imageUrl, Integer stock) {
+        this.id = id;
+        this.quantite = quantite;
+        this.product = new CartProductResponse(productId, nom, prix, imageUrl, stock);
+        this.lineTotal = prix.multiply(BigDecimal.valueOf(quantite));
+    }
+}
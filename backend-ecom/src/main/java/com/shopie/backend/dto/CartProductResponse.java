@@ -0,0 +1,18 @@
+package com.shopie.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartProductResponse {
+    private Long id;
+    private String nom;
+    private BigDecimal prix;
+    private String imageUrl;
+    private Integer stock;
+}
@@ -0,0 +1,28 @@
+package com.shopie.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartResponse {
+    private List<CartItemResponse> items;
+    private BigDecimal total;
+    private int itemCount;
+    
+    // Constructeur pour créer depuis les lignes projetées du panier
+    public CartResponse(List<CartItemResponse> items) {
+        this.items = items;
+        this.total = items.stream()
+                .map(CartItemResponse::getLineTotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        this.itemCount = items.stream()
+                .mapToInt(CartItemResponse::getQuantite)
+                .sum();
+    }
+}
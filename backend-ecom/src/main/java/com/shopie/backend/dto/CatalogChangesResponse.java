@@ -0,0 +1,21 @@
+package com.shopie.backend.dto;
+
+import com.shopie.backend.model.Category;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogChangesResponse {
+    private long version; // à renvoyer dans since à la prochaine synchronisation
+    private boolean fullResync; // true : remplacer tout le catalogue local par cette réponse
+    private boolean hasMore; // d'autres changements suivent, rappeler immédiatement avec la nouvelle version
+    private List<ProductListItem> products; // créés ou modifiés
+    private List<Category> categories; // créées ou modifiées ; le nom de catégorie des produits s'applique via categoryId
+    private List<Long> deletedProductIds;
+    private List<Long> deletedCategoryIds;
+}
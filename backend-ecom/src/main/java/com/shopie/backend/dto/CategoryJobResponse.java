@@ -0,0 +1,22 @@
+package com.shopie.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryJobResponse {
+    private String id;
+    private Long categoryId;
+    private Long targetCategoryId; // null : produits sans catégorie
+    private String status; // RUNNING, COMPLETED, FAILED
+    private long totalProducts;
+    private long movedProducts;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
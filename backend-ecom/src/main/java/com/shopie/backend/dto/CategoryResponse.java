@@ -0,0 +1,20 @@
+package com.shopie.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryResponse {
+    private Long id;
+    private String nom;
+    private String description;
+    private Long parentId;
+    private String chemin;
+    private long productCount; // produits rattachés directement
+    private long inStockCount;
+    private long subtreeProductCount; // catégorie et toutes ses sous-catégories
+    private long subtreeInStockCount;
+}
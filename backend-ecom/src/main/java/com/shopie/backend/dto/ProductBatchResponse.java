@@ -0,0 +1,16 @@
+package com.shopie.backend.dto;
+
+import com.shopie.backend.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchResponse {
+    private List<Product> items; // dans l'ordre des ids demandés
+    private List<Long> missing;
+}
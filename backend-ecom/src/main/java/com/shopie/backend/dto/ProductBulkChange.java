@@ -0,0 +1,19 @@
+package com.shopie.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBulkChange {
+    private Long id;
+    private String nom;
+    private BigDecimal ancienPrix;
+    private BigDecimal nouveauPrix;
+    private Integer ancienStock;
+    private Integer nouveauStock;
+}
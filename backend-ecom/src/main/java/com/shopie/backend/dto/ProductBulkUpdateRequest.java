@@ -0,0 +1,33 @@
+package com.shopie.backend.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBulkUpdateRequest {
+    
+    public enum Operation {
+        SET_PRICE, PERCENT_PRICE, SET_STOCK, DELTA_STOCK
+    }
+    
+    // Filtre : les critères renseignés se cumulent ; aucun critère sélectionne tout le catalogue
+    private Long categoryId;
+    private boolean subcategories;
+    private List<Long> ids;
+    private Integer minStock;
+    private Integer maxStock;
+    
+    @NotNull(message = "L'opération est obligatoire")
+    private Operation operation;
+    
+    // Nouveau prix, pourcentage (-10 : baisse de 10 %), nouveau stock ou variation de stock
+    @NotNull(message = "La valeur est obligatoire")
+    private BigDecimal value;
+}
@@ -0,0 +1,20 @@
+package com.shopie.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBulkUpdateResponse {
+    private boolean preview; // true : rien n'a été écrit
+    private long matched;
+    private long changed; // produits dont le prix ou le stock change réellement
+    private long restocked; // produits repassés en stock (alertes déclenchées)
+    private List<ProductBulkChange> changes;
+    private boolean changesTruncated; // seules les premières modifications sont détaillées
+    private long durationMs;
+}
@@ -0,0 +1,21 @@
+package com.shopie.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilterResponse {
+    private List<ProductListItem> items;
+    private long total;
+    private int page;
+    private int size;
+    // Comptes par facette, chacun calculé sans le filtre de sa propre facette
+    private List<FacetCount> categories;
+    private List<FacetCount> stock;
+    private List<FacetCount> prices;
+}
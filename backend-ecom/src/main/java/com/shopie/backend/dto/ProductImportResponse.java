@@ -0,0 +1,20 @@
+package com.shopie.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResponse {
+    private long rows;
+    private long created;
+    private long updated;
+    private long rejected;
+    private List<ProductImportError> errors;
+    private boolean errorsTruncated; // seules les premières erreurs sont détaillées
+    private long durationMs;
+}
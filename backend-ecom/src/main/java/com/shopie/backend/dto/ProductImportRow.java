@@ -0,0 +1,22 @@
+package com.shopie.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Ligne d'un import de catalogue (CSV ou NDJSON) ; avec un id, la ligne met à jour le produit existant
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportRow {
+    private Long id;
+    private String nom;
+    private String description;
+    private BigDecimal prix;
+    private Integer stock;
+    private String imageUrl;
+    private String categorie; // nom de la catégorie
+    private Long categoryId;
+}
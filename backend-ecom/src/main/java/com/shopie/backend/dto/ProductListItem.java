@@ -0,0 +1,24 @@
+package com.shopie.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductListItem {
+    // Longueur de l'extrait de description renvoyé dans les listes
+    public static final int RESUME_LENGTH = 160;
+    
+    private Long id;
+    private String nom;
+    private String resume; // début de la description, la fiche complète est sur /products/{id}
+    private BigDecimal prix;
+    private String imageUrl;
+    private Integer stock;
+    private Long categoryId;
+    private String categoryNom;
+}
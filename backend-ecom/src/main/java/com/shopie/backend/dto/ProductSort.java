@@ -0,0 +1,34 @@
+package com.shopie.backend.dto;
+
+import org.springframework.data.domain.Sort;
+
+/**
+ * Tris disponibles pour le catalogue paginé. Chaque tri se termine par l'id
+ * pour que le curseur (clé de tri + id) désigne une position unique.
+ */
+public enum ProductSort {
+    ID("id"),
+    PRICE("prix"),
+    NAME("nom"),
+    NEWEST("id");
+    
+    private final String property;
+    
+    ProductSort(String property) {
+        this.property = property;
+    }
+    
+    public String getProperty() {
+        return property;
+    }
+    
+    public Sort toSort(Sort.Direction direction) {
+        if (this == NEWEST) {
+            return Sort.by(Sort.Direction.DESC, "id");
+        }
+        if (this == ID) {
+            return Sort.by(direction, "id");
+        }
+        return Sort.by(direction, property).and(Sort.by(direction, "id"));
+    }
+}
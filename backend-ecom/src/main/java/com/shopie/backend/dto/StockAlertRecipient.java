@@ -0,0 +1,15 @@
+package com.shopie.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAlertRecipient {
+    private Long subscriptionId;
+    private Long userId;
+    private String email;
+    private String nom;
+}
@@ -0,0 +1,14 @@
+package com.shopie.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionResponse {
+    private String label;
+    private String type; // PRODUCT ou CATEGORY
+    private Long id;
+}
@@ -0,0 +1,7 @@
+package com.shopie.backend.exception;
+
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
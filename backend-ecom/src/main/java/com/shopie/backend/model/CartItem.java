@@ -8,8 +8,14 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", uniqueConstraints = {
+    @UniqueConstraint(name = "unique_user_product", columnNames = {"user_id", "product_id"})
+}, indexes = {
+    @Index(name = "idx_cart_user_activite", columnList = "user_id, derniere_activite")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,4 +40,14 @@ public class CartItem {
     @Min(value = 1, message = "La quantité doit être au moins 1")
     @Column(nullable = false)
     private Integer quantite;
+    
+    // Dernière modification de la ligne, utilisée pour purger les paniers abandonnés
+    @Column(name = "derniere_activite")
+    private LocalDateTime derniereActivite;
+    
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        derniereActivite = LocalDateTime.now();
+    }
 }
\ No newline at end of file
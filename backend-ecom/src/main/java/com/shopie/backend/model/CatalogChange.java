@@ -0,0 +1,53 @@
+package com.shopie.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Journal des modifications du catalogue, lu par la synchronisation incrémentale des clients.
+ * L'id auto-incrémenté sert de version : un client demande les changements d'id supérieur
+ * à la dernière version reçue.
+ */
+@Entity
+@Table(name = "catalog_changes", indexes = @Index(name = "idx_catalog_change_date", columnList = "date_changement"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogChange {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type_entite", nullable = false, length = 20)
+    private Type type;
+    
+    @Column(name = "entite_id", nullable = false)
+    private Long entiteId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Operation operation;
+    
+    @Column(name = "date_changement", nullable = false)
+    private LocalDateTime date = LocalDateTime.now();
+    
+    public CatalogChange(Type type, Long entiteId, Operation operation) {
+        this.type = type;
+        this.entiteId = entiteId;
+        this.operation = operation;
+    }
+    
+    public enum Type {
+        PRODUCT, CATEGORY
+    }
+    
+    public enum Operation {
+        UPSERT, DELETE
+    }
+}
@@ -9,13 +9,22 @@ import lombok.NoArgsConstructor;
 
 import java.util.List;
 
+/**
+ * Catégorie du catalogue, éventuellement rattachée à une catégorie parente.
+ * Le chemin matérialisé liste les ids des ancêtres puis de la catégorie (« /1/4/9/ ») :
+ * une sous-arborescence se lit par une seule requête indexée sur le préfixe du chemin.
+ */
 @Entity
-@Table(name = "categories")
+@Table(name = "categories", indexes = {
+    @Index(name = "idx_category_chemin", columnList = "chemin")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Category {
     
+    public static final int MAX_PATH_LENGTH = 255;
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -27,7 +36,15 @@ public class Category {
     @Column(columnDefinition = "TEXT")
     private String description;
     
-    @OneToMany(mappedBy = "category", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Column(name = "parent_id")
+    private Long parentId;
+    
+    // Calculé par le service à partir du parent
+    @Column(length = MAX_PATH_LENGTH)
+    private String chemin;
+    
+    // Pas de cascade : la suppression rattache les produits ailleurs par des UPDATE en masse
+    @OneToMany(mappedBy = "category", fetch = FetchType.LAZY)
     @JsonIgnore
     private List<Product> products;
 }
\ No newline at end of file
@@ -9,12 +9,18 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_category_stock_prix", columnList = "category_id, stock, prix"),
+    @Index(name = "idx_products_prix_id", columnList = "prix, id"),
+    @Index(name = "idx_products_nom_id", columnList = "nom, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -46,11 +52,21 @@ public class Product {
     @JoinColumn(name = "category_id")
     private Category category;
     
+    // Suppression logique : hors catalogue, mais toujours référencé par l'historique des commandes
     @JsonIgnore
-    @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Column(nullable = false)
+    @ColumnDefault("false")
+    private boolean archived = false;
+    
+    @JsonIgnore
+    private LocalDateTime dateArchivage;
+    
+    // Pas de cascade : un produit n'est jamais supprimé physiquement par l'application
+    @JsonIgnore
+    @OneToMany(mappedBy = "product", fetch = FetchType.LAZY)
     private List<CartItem> cartItems;
     
     @JsonIgnore
-    @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OneToMany(mappedBy = "product", fetch = FetchType.LAZY)
     private List<OrderItem> orderItems;
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.shopie.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Compteurs de popularité d'un produit, écrits par lots depuis la mémoire.
+ * Le score de tendance est la valeur à dateMaj ; il décroît ensuite avec le temps.
+ */
+@Entity
+@Table(name = "product_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStats {
+    
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+    
+    @Column(nullable = false)
+    private long vues;
+    
+    @Column(name = "ajouts_panier", nullable = false)
+    private long ajoutsPanier;
+    
+    @Column(nullable = false)
+    private long achats;
+    
+    @Column(name = "score_tendance", nullable = false)
+    private double scoreTendance;
+    
+    @Column(name = "date_maj", nullable = false)
+    private LocalDateTime dateMaj;
+}
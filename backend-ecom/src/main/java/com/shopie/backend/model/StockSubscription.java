@@ -0,0 +1,45 @@
+package com.shopie.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Demande d'alerte de retour en stock. La ligne est supprimée une fois l'utilisateur prévenu.
+ */
+@Entity
+@Table(name = "stock_subscriptions", uniqueConstraints = {
+    @UniqueConstraint(name = "unique_subscription_user_product", columnNames = {"user_id", "product_id"})
+}, indexes = {
+    @Index(name = "idx_subscription_product_id", columnList = "product_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockSubscription {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+    
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Product product;
+    
+    @Column(name = "date_creation", nullable = false)
+    private LocalDateTime dateCreation = LocalDateTime.now();
+}
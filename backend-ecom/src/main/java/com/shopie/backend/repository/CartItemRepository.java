@@ -1,17 +1,54 @@
 package com.shopie.backend.repository;
 
+import com.shopie.backend.dto.CartItemResponse;
 import com.shopie.backend.model.CartItem;
 import com.shopie.backend.model.Product;
 import com.shopie.backend.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+public interface CartItemRepository extends JpaRepository<CartItem, Long>, CartItemRepositoryCustom {
     List<CartItem> findByUser(User user);
+    
+    // Lignes commandables : celles des produits archivés attendent la purge et sont ignorées
+    List<CartItem> findByUserAndProductArchivedFalse(User user);
     Optional<CartItem> findByUserAndProduct(User user, Product product);
     void deleteByUser(User user);
+    
+    // Vue du panier : une seule requête, sans charger les entités Product/Category
+    @Query("SELECT new com.shopie.backend.dto.CartItemResponse(c.id, c.quantite, p.id, p.nom, p.prix, p.imageUrl, p.stock) " +
+           "FROM CartItem c JOIN c.product p WHERE c.user = :user AND p.archived = false ORDER BY c.id")
+    List<CartItemResponse> findCartViewByUser(User user);
+    
+    // Paniers abandonnés : parcours par clé (user_id croissant) pour des lots courts
+    @Query("SELECT c.user.id AS userId, COUNT(c) AS lignes FROM CartItem c WHERE c.user.id > :afterUserId " +
+           "GROUP BY c.user.id HAVING MAX(c.derniereActivite) < :cutoff ORDER BY c.user.id")
+    List<IdleCart> findIdleCarts(Long afterUserId, LocalDateTime cutoff, Pageable pageable);
+    
+    // La condition par panier est revérifiée dans la suppression : un utilisateur actif depuis le
+    // parcours garde tout son panier. Requête native pour la table dérivée matérialisée (NO_MERGE),
+    // sans laquelle MySQL refuse une sous-requête sur la table modifiée
+    @Modifying
+    @Query(value = "DELETE FROM cart_items WHERE user_id IN (:userIds) AND derniere_activite < :cutoff " +
+                   "AND user_id NOT IN (SELECT /*+ NO_MERGE(recent) */ user_id FROM (SELECT user_id FROM cart_items " +
+                   "WHERE user_id IN (:userIds) AND derniere_activite >= :cutoff) recent)",
+           nativeQuery = true)
+    int deleteIdleByUserIds(Collection<Long> userIds, LocalDateTime cutoff);
+    
+    // Lignes des produits archivés, parcourues par clé (id croissant)
+    @Query("SELECT c.id FROM CartItem c WHERE c.product.archived = true AND c.id > :afterId ORDER BY c.id")
+    List<Long> findIdsOfArchivedProducts(Long afterId, Pageable pageable);
+    
+    @Modifying
+    @Query("DELETE FROM CartItem c WHERE c.id IN :ids")
+    int deleteByIdIn(Collection<Long> ids);
 }
\ No newline at end of file
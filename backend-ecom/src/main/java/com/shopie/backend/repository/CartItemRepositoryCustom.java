@@ -0,0 +1,10 @@
+package com.shopie.backend.repository;
+
+public interface CartItemRepositoryCustom {
+    
+    /**
+     * Ajoute une quantité au panier en une seule instruction atomique :
+     * insère la ligne (user_id, product_id) ou incrémente sa quantité si elle existe déjà.
+     */
+    void upsertQuantity(Long userId, Long productId, int quantite);
+}
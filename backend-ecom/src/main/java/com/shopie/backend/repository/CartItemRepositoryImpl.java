@@ -0,0 +1,48 @@
+package com.shopie.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+
+public class CartItemRepositoryImpl implements CartItemRepositoryCustom {
+    
+    // MySQL : s'appuie sur la contrainte unique (user_id, product_id)
+    private static final String MYSQL_UPSERT =
+            "INSERT INTO cart_items (user_id, product_id, quantite, derniere_activite) VALUES (?1, ?2, ?3, ?4) " +
+            "ON DUPLICATE KEY UPDATE quantite = quantite + VALUES(quantite), derniere_activite = VALUES(derniere_activite)";
+    
+    // H2 (tests) : MERGE standard équivalent
+    private static final String MERGE_UPSERT =
+            "MERGE INTO cart_items c " +
+            "USING (VALUES (CAST(?1 AS BIGINT), CAST(?2 AS BIGINT), CAST(?3 AS INT), CAST(?4 AS TIMESTAMP))) " +
+            "AS s(user_id, product_id, quantite, derniere_activite) " +
+            "ON c.user_id = s.user_id AND c.product_id = s.product_id " +
+            "WHEN MATCHED THEN UPDATE SET quantite = c.quantite + s.quantite, derniere_activite = s.derniere_activite " +
+            "WHEN NOT MATCHED THEN INSERT (user_id, product_id, quantite, derniere_activite) " +
+            "VALUES (s.user_id, s.product_id, s.quantite, s.derniere_activite)";
+    
+    // MERGE n'est pas atomique sous H2 : deux premiers ajouts simultanés tenteraient tous deux l'insertion.
+    // Le verrou sur l'utilisateur sérialise les ajouts à un même panier jusqu'à la fin de la transaction
+    private static final String MERGE_LOCK = "SELECT id FROM users WHERE id = ?1 FOR UPDATE";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Autowired
+    private UpsertDialect upsertDialect;
+    
+    @Override
+    public void upsertQuantity(Long userId, Long productId, int quantite) {
+        if (upsertDialect.isH2()) {
+            entityManager.createNativeQuery(MERGE_LOCK).setParameter(1, userId).getResultList();
+        }
+        entityManager.createNativeQuery(upsertDialect.select(MYSQL_UPSERT, MERGE_UPSERT))
+                .setParameter(1, userId)
+                .setParameter(2, productId)
+                .setParameter(3, quantite)
+                .setParameter(4, LocalDateTime.now())
+                .executeUpdate();
+    }
+}
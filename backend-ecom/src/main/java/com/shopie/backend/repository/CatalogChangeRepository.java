@@ -0,0 +1,29 @@
+package com.shopie.backend.repository;
+
+import com.shopie.backend.model.CatalogChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CatalogChangeRepository extends JpaRepository<CatalogChange, Long> {
+    
+    // Changements entre une version et la borne sûre (aucun id inférieur encore en cours d'écriture)
+    List<CatalogChange> findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(Long id, Long upTo, Limit limit);
+    
+    @Query("SELECT MIN(c.id) FROM CatalogChange c")
+    Long findMinId();
+    
+    @Query("SELECT MAX(c.id) FROM CatalogChange c")
+    Long findMaxId();
+    
+    // La dernière ligne est toujours conservée : elle porte la version courante
+    @Modifying
+    @Query("DELETE FROM CatalogChange c WHERE c.date < :cutoff AND c.id < :maxId")
+    int deleteOlderThan(LocalDateTime cutoff, Long maxId);
+}
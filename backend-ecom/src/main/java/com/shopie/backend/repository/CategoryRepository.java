@@ -2,6 +2,8 @@ package com.shopie.backend.repository;
 
 import com.shopie.backend.model.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,4 +17,23 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findByNom(String nom);
     
     boolean existsByNom(String nom);
+    
+    boolean existsByParentId(Long parentId);
+    
+    // Déplacement d'une sous-arborescence : le préfixe de chemin est remplacé pour tous ses descendants
+    @Modifying
+    @Query("UPDATE Category c SET c.chemin = CONCAT(:newPrefix, SUBSTRING(c.chemin, LENGTH(:oldPrefix) + 1)) "
+            + "WHERE c.chemin LIKE CONCAT(:oldPrefix, '%')")
+    int replacePathPrefix(String oldPrefix, String newPrefix);
+    
+    @Query("SELECT c.id FROM Category c WHERE c.chemin LIKE CONCAT(:prefix, '%')")
+    List<Long> findIdsByPathPrefix(String prefix);
+    
+    @Query("SELECT MAX(LENGTH(c.chemin)) FROM Category c WHERE c.chemin LIKE CONCAT(:prefix, '%')")
+    Integer findMaxPathLength(String prefix);
+    
+    // Catégories antérieures à la hiérarchie : racines sans chemin
+    @Modifying
+    @Query("UPDATE Category c SET c.chemin = CONCAT('/', CAST(c.id AS String), '/') WHERE c.chemin IS NULL")
+    int fillMissingPaths();
 }
\ No newline at end of file
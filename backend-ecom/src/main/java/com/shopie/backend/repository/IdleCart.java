@@ -0,0 +1,9 @@
+package com.shopie.backend.repository;
+
+/**
+ * Panier abandonné trouvé par la purge : l'utilisateur et le nombre de lignes examinées.
+ */
+public interface IdleCart {
+    Long getUserId();
+    long getLignes();
+}
@@ -3,6 +3,7 @@ package com.shopie.backend.repository;
 import com.shopie.backend.model.Order;
 import com.shopie.backend.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +11,8 @@ import java.util.List;
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrder(Order order);
+    
+    // Quantités vendues par produit : [productId, quantité totale]
+    @Query("SELECT oi.product.id, SUM(oi.quantite) FROM OrderItem oi GROUP BY oi.product.id")
+    List<Object[]> sumQuantitiesByProduct();
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.shopie.backend.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection réduite aux clés de tri du catalogue paginé : le parcours keyset
+ * reste dans les index (prix, id) / (nom, id) sans lire les lignes complètes.
+ */
+public interface ProductKey {
+    Long getId();
+    BigDecimal getPrix();
+    String getNom();
+}
@@ -1,24 +1,70 @@
 package com.shopie.backend.repository;
 
+import com.shopie.backend.dto.ProductListItem;
 import com.shopie.backend.model.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
-    List<Product> findByNomContainingIgnoreCase(String nom);
-    List<Product> findByStockGreaterThan(Integer stock);
     
-    // Méthodes pour filtrer par catégorie
-    List<Product> findByCategoryId(Long categoryId);
-    List<Product> findByCategoryIdAndStockGreaterThan(Long categoryId, Integer stock);
+    String LIST_ITEM_SELECT = "SELECT new com.shopie.backend.dto.ProductListItem(p.id, p.nom, "
+            + "SUBSTRING(p.description, 1, " + ProductListItem.RESUME_LENGTH + "), p.prix, p.imageUrl, p.stock, c.id, c.nom) "
+            + "FROM Product p LEFT JOIN p.category c";
     
-    @Query("SELECT p FROM Product p WHERE p.stock > 0")
-    List<Product> findAvailableProducts();
+    // Produits du catalogue : les produits archivés (supprimés) sont exclus partout
+    String ACTIVE = " WHERE p.archived = false";
     
-    @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND p.stock > 0")
-    List<Product> findAvailableProductsByCategory(Long categoryId);
-}
\ No newline at end of file
+    long countByCategoryIdAndArchivedFalse(Long categoryId);
+    
+    Optional<Product> findByIdAndArchivedFalse(Long id);
+    List<Product> findByArchivedFalse();
+    List<Product> findByIdInAndArchivedFalse(Collection<Long> ids);
+    long countByArchivedFalse();
+    
+    // Catalogue paginé par curseur (keyset) : pas d'OFFSET ni de COUNT, seules les clés de tri sont lues
+    Window<ProductKey> findKeysByArchivedFalse(ScrollPosition position, Sort sort, Limit limit);
+    Window<ProductKey> findKeysByArchivedFalseAndStockGreaterThan(Integer stock, ScrollPosition position, Sort sort, Limit limit);
+    Window<ProductKey> findKeysByArchivedFalseAndCategoryId(Long categoryId, ScrollPosition position, Sort sort, Limit limit);
+    Window<ProductKey> findKeysByArchivedFalseAndCategoryIdAndStockGreaterThan(Long categoryId, Integer stock, ScrollPosition position, Sort sort, Limit limit);
+    
+    // Listes du catalogue : seuls les champs affichés dans une carte produit, catégorie aplatie
+    @Query(LIST_ITEM_SELECT + ACTIVE + " ORDER BY p.id")
+    List<ProductListItem> findListItems();
+    
+    @Query(LIST_ITEM_SELECT + ACTIVE + " AND p.stock > 0 ORDER BY p.id")
+    List<ProductListItem> findAvailableListItems();
+    
+    @Query(LIST_ITEM_SELECT + ACTIVE + " AND c.id = :categoryId ORDER BY p.id")
+    List<ProductListItem> findListItemsByCategoryId(Long categoryId);
+    
+    @Query(LIST_ITEM_SELECT + ACTIVE + " AND c.id = :categoryId AND p.stock > 0 ORDER BY p.id")
+    List<ProductListItem> findAvailableListItemsByCategoryId(Long categoryId);
+    
+    // Sous-arborescence d'une catégorie : préfixe du chemin matérialisé (idx_category_chemin)
+    @Query(LIST_ITEM_SELECT + ACTIVE + " AND c.chemin LIKE CONCAT(:chemin, '%') ORDER BY p.id")
+    List<ProductListItem> findListItemsByCategoryPath(String chemin);
+    
+    @Query(LIST_ITEM_SELECT + ACTIVE + " AND c.chemin LIKE CONCAT(:chemin, '%') AND p.stock > 0 ORDER BY p.id")
+    List<ProductListItem> findAvailableListItemsByCategoryPath(String chemin);
+    
+    @Query(LIST_ITEM_SELECT + ACTIVE + " AND p.id IN :ids")
+    List<ProductListItem> findListItemsByIdIn(Collection<Long> ids);
+    
+    // Suppression logique : une seule instruction, sans charger le produit ni ses lignes de commande
+    @Modifying
+    @Query("UPDATE Product p SET p.archived = true, p.dateArchivage = :date WHERE p.id = :id AND p.archived = false")
+    int archive(Long id, LocalDateTime date);
+
+}
@@ -0,0 +1,12 @@
+package com.shopie.backend.repository;
+
+import com.shopie.backend.model.ProductStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductStatsRepository extends JpaRepository<ProductStats, Long>, ProductStatsRepositoryCustom {
+    List<ProductStats> findByScoreTendanceGreaterThan(double score);
+}
@@ -0,0 +1,13 @@
+package com.shopie.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ProductStatsRepositoryCustom {
+    
+    // Incréments accumulés en mémoire pour un produit, avec son nouveau score de tendance
+    record Delta(Long productId, long vues, long ajoutsPanier, long achats, double scoreTendance) {
+    }
+    
+    void addAll(List<Delta> deltas, LocalDateTime date);
+}
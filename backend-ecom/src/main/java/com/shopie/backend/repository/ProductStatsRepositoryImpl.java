@@ -0,0 +1,48 @@
+package com.shopie.backend.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ProductStatsRepositoryImpl implements ProductStatsRepositoryCustom {
+    
+    // MySQL : les compteurs s'ajoutent, le score est remplacé
+    private static final String MYSQL_UPSERT =
+            "INSERT INTO product_stats (product_id, vues, ajouts_panier, achats, score_tendance, date_maj) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE vues = vues + VALUES(vues), ajouts_panier = ajouts_panier + VALUES(ajouts_panier), " +
+            "achats = achats + VALUES(achats), score_tendance = VALUES(score_tendance), date_maj = VALUES(date_maj)";
+    
+    // H2 (tests) : MERGE standard équivalent
+    private static final String MERGE_UPSERT =
+            "MERGE INTO product_stats s " +
+            "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT), " +
+            "CAST(? AS DOUBLE PRECISION), CAST(? AS TIMESTAMP))) " +
+            "AS v(product_id, vues, ajouts_panier, achats, score_tendance, date_maj) " +
+            "ON s.product_id = v.product_id " +
+            "WHEN MATCHED THEN UPDATE SET vues = s.vues + v.vues, ajouts_panier = s.ajouts_panier + v.ajouts_panier, " +
+            "achats = s.achats + v.achats, score_tendance = v.score_tendance, date_maj = v.date_maj " +
+            "WHEN NOT MATCHED THEN INSERT (product_id, vues, ajouts_panier, achats, score_tendance, date_maj) " +
+            "VALUES (v.product_id, v.vues, v.ajouts_panier, v.achats, v.score_tendance, v.date_maj)";
+    
+    private static final int BATCH_SIZE = 500;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private UpsertDialect upsertDialect;
+    
+    @Override
+    public void addAll(List<Delta> deltas, LocalDateTime date) {
+        jdbcTemplate.batchUpdate(upsertDialect.select(MYSQL_UPSERT, MERGE_UPSERT), deltas, BATCH_SIZE, (ps, delta) -> {
+            ps.setLong(1, delta.productId());
+            ps.setLong(2, delta.vues());
+            ps.setLong(3, delta.ajoutsPanier());
+            ps.setLong(4, delta.achats());
+            ps.setDouble(5, delta.scoreTendance());
+            ps.setObject(6, date);
+        });
+    }
+}
@@ -0,0 +1,43 @@
+package com.shopie.backend.repository;
+
+import com.shopie.backend.dto.StockAlertRecipient;
+import com.shopie.backend.model.StockSubscription;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockSubscriptionRepository extends JpaRepository<StockSubscription, Long> {
+    
+    boolean existsByUserIdAndProductId(Long userId, Long productId);
+    
+    @Modifying
+    @Query("DELETE FROM StockSubscription s WHERE s.user.id = :userId AND s.product.id = :productId")
+    int deleteByUserIdAndProductId(Long userId, Long productId);
+    
+    @Query("SELECT s.product.id FROM StockSubscription s WHERE s.user.id = :userId ORDER BY s.id DESC")
+    List<Long> findProductIdsByUserId(Long userId);
+    
+    // Abonnés d'un produit, parcourus par clé (id croissant) en lots courts
+    @Query("SELECT new com.shopie.backend.dto.StockAlertRecipient(s.id, u.id, u.email, u.nom) " +
+           "FROM StockSubscription s JOIN s.user u WHERE s.product.id = :productId AND s.id > :afterId ORDER BY s.id")
+    List<StockAlertRecipient> findRecipients(Long productId, Long afterId, Pageable pageable);
+    
+    // Produits en stock qui ont encore des abonnés : rattrapage après un débordement de la file d'alertes
+    @Query("SELECT DISTINCT s.product.id FROM StockSubscription s " +
+           "WHERE s.product.archived = false AND s.product.stock > 0 AND s.product.id > :afterId ORDER BY s.product.id")
+    List<Long> findProductIdsInStock(Long afterId, Pageable pageable);
+    
+    // Abonnements aux produits archivés, parcourus par clé (id croissant)
+    @Query("SELECT s.id FROM StockSubscription s WHERE s.product.archived = true AND s.id > :afterId ORDER BY s.id")
+    List<Long> findIdsOfArchivedProducts(Long afterId, Pageable pageable);
+    
+    @Modifying
+    @Query("DELETE FROM StockSubscription s WHERE s.id IN :ids")
+    int deleteByIdIn(Collection<Long> ids);
+}
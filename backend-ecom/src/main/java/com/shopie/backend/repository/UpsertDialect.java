@@ -0,0 +1,29 @@
+package com.shopie.backend.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Choix de l'instruction d'upsert selon la base : ON DUPLICATE KEY UPDATE sur MySQL,
+ * MERGE standard sur H2 (tests). Le dialecte est celui configuré pour Hibernate,
+ * sans ouvrir de connexion.
+ */
+@Component
+class UpsertDialect {
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    String select(String mysqlUpsert, String mergeUpsert) {
+        return isH2() ? mergeUpsert : mysqlUpsert;
+    }
+    
+    boolean isH2() {
+        return entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof H2Dialect;
+    }
+}
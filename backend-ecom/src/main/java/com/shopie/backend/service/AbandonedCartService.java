@@ -0,0 +1,130 @@
+package com.shopie.backend.service;
+
+import com.shopie.backend.repository.CartItemRepository;
+import com.shopie.backend.repository.IdleCart;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Purge des paniers abandonnés (aucune activité depuis {@code app.cart.reaper.idle-days} jours).
+ * Le parcours se fait par lots courts, chacun dans sa propre transaction, avec une pause
+ * entre les lots pour ne pas bloquer le trafic des paniers actifs.
+ */
+@Service
+public class AbandonedCartService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AbandonedCartService.class);
+    
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${app.cart.reaper.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.cart.reaper.idle-days:30}")
+    private int idleDays;
+    
+    @Value("${app.cart.reaper.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${app.cart.reaper.pause-ms:100}")
+    private long pauseMs;
+    
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong cartsScanned = new AtomicLong();
+    private final AtomicLong rowsScanned = new AtomicLong();
+    private final AtomicLong rowsRemoved = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+    private volatile long lastRunRowsRemoved;
+    
+    @Scheduled(initialDelayString = "${app.cart.reaper.initial-delay-ms:600000}",
+               fixedDelayString = "${app.cart.reaper.interval-ms:3600000}")
+    public void scheduledPurge() {
+        if (enabled) {
+            purgeIdleCarts();
+        }
+    }
+    
+    public long purgeIdleCarts() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(idleDays);
+            long removed = 0;
+            long lastUserId = 0L;
+            
+            while (true) {
+                List<IdleCart> carts = cartItemRepository.findIdleCarts(
+                        lastUserId, cutoff, PageRequest.of(0, batchSize));
+                if (carts.isEmpty()) {
+                    break;
+                }
+                List<Long> userIds = carts.stream().map(IdleCart::getUserId).toList();
+                cartsScanned.addAndGet(carts.size());
+                rowsScanned.addAndGet(carts.stream().mapToLong(IdleCart::getLignes).sum());
+                
+                Integer deleted = transactionTemplate.execute(
+                        status -> cartItemRepository.deleteIdleByUserIds(userIds, cutoff));
+                removed += deleted != null ? deleted : 0;
+                lastUserId = userIds.get(userIds.size() - 1);
+                
+                if (userIds.size() < batchSize || !pause()) {
+                    break;
+                }
+            }
+            
+            rowsRemoved.addAndGet(removed);
+            runs.incrementAndGet();
+            lastRunAt = LocalDateTime.now();
+            lastRunRowsRemoved = removed;
+            if (removed > 0) {
+                logger.info("Paniers abandonnés purgés : {} lignes supprimées", removed);
+            }
+            return removed;
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("idleDays", idleDays);
+        stats.put("running", running.get());
+        stats.put("runs", runs.get());
+        stats.put("cartsScanned", cartsScanned.get());
+        stats.put("rowsScanned", rowsScanned.get());
+        stats.put("rowsRemoved", rowsRemoved.get());
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastRunRowsRemoved", lastRunRowsRemoved);
+        return stats;
+    }
+    
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
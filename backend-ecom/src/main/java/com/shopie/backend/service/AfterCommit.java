@@ -0,0 +1,31 @@
+package com.shopie.backend.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Effets hors base d'une écriture transactionnelle (index en mémoire, versions du cache, compteurs).
+ * Ils ne sont appliqués qu'une fois la transaction validée : une lecture concurrente ne peut pas
+ * remettre en cache l'état d'avant sous la nouvelle version, et une annulation ne laisse pas les
+ * index en décalage avec la base. Hors transaction, l'action est exécutée immédiatement.
+ * Une action qui écrit en base doit ouvrir sa propre transaction (REQUIRES_NEW) : à ce stade,
+ * elle rejoindrait sinon la transaction déjà validée et son écriture serait perdue.
+ */
+final class AfterCommit {
+    
+    private AfterCommit() {
+    }
+    
+    static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -28,12 +28,15 @@ public class AnalyticsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private InventoryIndex inventoryIndex;
+
     public Map<String, Object> getDashboardStats() {
         Map<String, Object> stats = new HashMap<>();
         
         // Statistiques générales
         long totalUsers = userRepository.count();
-        long totalProducts = productRepository.count();
+        long totalProducts = productRepository.countByArchivedFalse();
         long totalOrders = orderRepository.count();
         
         // Revenus totaux - inclure toutes les commandes
@@ -51,10 +54,8 @@ public class AnalyticsService {
             .map(Order::getTotal)
             .reduce(BigDecimal.ZERO, BigDecimal::add);
         
-        // Produits en stock faible
-        long lowStockProducts = productRepository.findAll().stream()
-            .filter(product -> product.getStock() < 10)
-            .count();
+        // Produits en stock faible (compteur tenu à jour par l'index d'inventaire)
+        long lowStockProducts = inventoryIndex.getLowStockCount();
         
         // Commandes en attente
         long pendingOrders = orderRepository.countByStatut(Order.Statut.PENDING);
@@ -66,6 +67,7 @@ public class AnalyticsService {
         stats.put("ordersThisMonth", ordersThisMonth);
         stats.put("revenueThisMonth", revenueThisMonth.doubleValue());
         stats.put("lowStockProducts", lowStockProducts);
+        stats.put("lowStockThreshold", inventoryIndex.getLowStockThreshold());
         stats.put("pendingOrders", pendingOrders);
         
         return stats;
@@ -116,30 +118,33 @@ public class AnalyticsService {
     public Map<String, Object> getProductStats() {
         Map<String, Object> stats = new HashMap<>();
         
-        List<Product> allProducts = productRepository.findAll();
+        // Listes et totaux lus dans l'index d'inventaire : seuls les produits listés sont chargés
+        InventoryIndex.Snapshot inventory = inventoryIndex.snapshot();
+        Map<Long, Product> listed = productRepository.findAllById(inventory.lowStockIds()).stream()
+            .collect(Collectors.toMap(Product::getId, product -> product));
         
-        // Produits en stock faible (moins de 10)
-        List<Product> lowStockProducts = allProducts.stream()
-            .filter(product -> product.getStock() < 10)
-            .sorted(Comparator.comparing(Product::getStock))
+        // Produits en stock faible (stock croissant)
+        List<Product> lowStockProducts = inventory.lowStockIds().stream()
+            .map(listed::get)
+            .filter(Objects::nonNull)
             .collect(Collectors.toList());
         
         // Produits en rupture de stock
-        List<Product> outOfStockProducts = allProducts.stream()
-            .filter(product -> product.getStock() == 0)
+        List<Product> outOfStockProducts = inventory.outOfStockIds().stream()
+            .map(listed::get)
+            .filter(Objects::nonNull)
             .collect(Collectors.toList());
         
-        // Valeur totale du stock
-        double totalStockValue = allProducts.stream()
-            .mapToDouble(product -> product.getPrix().doubleValue() * product.getStock())
-            .sum();
+        // Valeur totale du stock, calculée en centimes
+        BigDecimal totalStockValue = BigDecimal.valueOf(inventory.totalValueCents(), 2);
         
-        stats.put("totalProducts", allProducts.size());
+        stats.put("totalProducts", inventory.totalProducts());
         stats.put("lowStockProducts", lowStockProducts);
         stats.put("outOfStockProducts", outOfStockProducts);
         stats.put("totalStockValue", totalStockValue);
-        stats.put("lowStockCount", lowStockProducts.size());
-        stats.put("outOfStockCount", outOfStockProducts.size());
+        stats.put("lowStockThreshold", inventory.lowStockThreshold());
+        stats.put("lowStockCount", inventory.lowStockCount());
+        stats.put("outOfStockCount", inventory.outOfStockCount());
         
         return stats;
     }
@@ -317,7 +322,7 @@ public class AnalyticsService {
                 .map(p -> (Long) p.get("id"))
                 .collect(Collectors.toSet());
             
-            List<Product> remainingProducts = productRepository.findAll().stream()
+            List<Product> remainingProducts = productRepository.findByArchivedFalse().stream()
                 .filter(product -> !existingIds.contains(product.getId()))
                 .sorted((p1, p2) -> Integer.compare(p2.getStock(), p1.getStock()))
                 .limit(limit - topProducts.size())
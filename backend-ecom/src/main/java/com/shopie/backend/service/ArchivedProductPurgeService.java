@@ -0,0 +1,127 @@
+package com.shopie.backend.service;
+
+import com.shopie.backend.repository.CartItemRepository;
+import com.shopie.backend.repository.StockSubscriptionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Purge des lignes qui référencent des produits archivés (paniers et alertes de retour en stock).
+ * La suppression d'un produit n'est qu'une mise à jour de son indicateur ; ces lignes, déjà ignorées
+ * par les lectures, sont supprimées ici par lots courts, chacun dans sa propre transaction.
+ * Les lignes de commande ne sont jamais touchées : l'historique des ventes reste complet.
+ */
+@Service
+public class ArchivedProductPurgeService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ArchivedProductPurgeService.class);
+    
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    
+    @Autowired
+    private StockSubscriptionRepository subscriptionRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${app.products.archive-purge.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.products.archive-purge.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${app.products.archive-purge.pause-ms:100}")
+    private long pauseMs;
+    
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong cartRowsRemoved = new AtomicLong();
+    private final AtomicLong subscriptionsRemoved = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+    
+    @Scheduled(initialDelayString = "${app.products.archive-purge.initial-delay-ms:60000}",
+               fixedDelayString = "${app.products.archive-purge.interval-ms:600000}")
+    public void scheduledPurge() {
+        if (enabled) {
+            purge();
+        }
+    }
+    
+    public long purge() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            long carts = purge(cartItemRepository::findIdsOfArchivedProducts, cartItemRepository::deleteByIdIn);
+            long subscriptions = purge(subscriptionRepository::findIdsOfArchivedProducts, subscriptionRepository::deleteByIdIn);
+            cartRowsRemoved.addAndGet(carts);
+            subscriptionsRemoved.addAndGet(subscriptions);
+            runs.incrementAndGet();
+            lastRunAt = LocalDateTime.now();
+            if (carts + subscriptions > 0) {
+                logger.info("Produits archivés : {} lignes de panier et {} alertes supprimées", carts, subscriptions);
+            }
+            return carts + subscriptions;
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    private long purge(BiFunction<Long, Pageable, List<Long>> findIds, Function<Collection<Long>, Integer> deleteIds) {
+        long removed = 0;
+        long lastId = 0L;
+        while (true) {
+            List<Long> ids = findIds.apply(lastId, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer deleted = transactionTemplate.execute(status -> deleteIds.apply(ids));
+            removed += deleted != null ? deleted : 0;
+            lastId = ids.get(ids.size() - 1);
+            
+            if (ids.size() < batchSize || !pause()) {
+                break;
+            }
+        }
+        return removed;
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("running", running.get());
+        stats.put("runs", runs.get());
+        stats.put("cartRowsRemoved", cartRowsRemoved.get());
+        stats.put("subscriptionsRemoved", subscriptionsRemoved.get());
+        stats.put("lastRunAt", lastRunAt);
+        return stats;
+    }
+    
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
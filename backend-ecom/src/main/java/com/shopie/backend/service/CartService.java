@@ -1,6 +1,7 @@
 package com.shopie.backend.service;
 
 import com.shopie.backend.dto.CartItemRequest;
+import com.shopie.backend.dto.CartResponse;
 import com.shopie.backend.exception.BadRequestException;
 import com.shopie.backend.exception.ResourceNotFoundException;
 import com.shopie.backend.model.CartItem;
@@ -12,7 +13,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.Optional;
 
 @Service
 public class CartService {
@@ -23,12 +23,20 @@ public class CartService {
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private ProductPopularityTracker popularityTracker;
+    
     public List<CartItem> getCartItems(User user) {
-        return cartItemRepository.findByUser(user);
+        return cartItemRepository.findByUserAndProductArchivedFalse(user);
+    }
+    
+    @Transactional(readOnly = true)
+    public CartResponse getCartView(User user) {
+        return new CartResponse(cartItemRepository.findCartViewByUser(user));
     }
     
     @Transactional
-    public CartItem addToCart(User user, CartItemRequest request) {
+    public CartResponse addToCart(User user, CartItemRequest request) {
         Product product = productService.getProductById(request.getProductId());
         
         // Stock validation disabled - unlimited cart additions allowed
@@ -36,26 +44,11 @@ public class CartService {
         //     throw new BadRequestException("Stock insuffisant pour ce produit");
         // }
         
-        Optional<CartItem> existingCartItem = cartItemRepository.findByUserAndProduct(user, product);
+        // Insertion ou incrément en une seule instruction (pas de doublon en cas d'ajouts concurrents)
+        cartItemRepository.upsertQuantity(user.getId(), product.getId(), request.getQuantite());
+        popularityTracker.recordCartAdd(product.getId(), request.getQuantite());
         
-        if (existingCartItem.isPresent()) {
-            CartItem cartItem = existingCartItem.get();
-            int newQuantity = cartItem.getQuantite() + request.getQuantite();
-            
-            // Stock validation disabled
-            // if (product.getStock() < newQuantity) {
-            //     throw new BadRequestException("Stock insuffisant pour cette quantité");
-            // }
-            
-            cartItem.setQuantite(newQuantity);
-            return cartItemRepository.save(cartItem);
-        } else {
-            CartItem cartItem = new CartItem();
-            cartItem.setUser(user);
-            cartItem.setProduct(product);
-            cartItem.setQuantite(request.getQuantite());
-            return cartItemRepository.save(cartItem);
-        }
+        return getCartView(user);
     }
     
     @Transactional
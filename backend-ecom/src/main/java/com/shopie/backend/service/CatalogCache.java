@@ -0,0 +1,141 @@
+package com.shopie.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.shopie.backend.model.Product;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache en lecture du catalogue public (produits par id, listes de produits et de catégories).
+ * Les listes sont indexées par la version courante du catalogue : toute écriture admin
+ * incrémente la version, et les requêtes suivantes ne voient plus les anciennes entrées,
+ * sans course possible avec un chargement en cours. Les produits sont invalidés un par un.
+ * Éviction W-TinyLFU (Caffeine) avec taille bornée.
+ * Les versions sont des horodatages en millisecondes : elles servent aussi d'ETag.
+ */
+@Component
+public class CatalogCache {
+    
+    private record ListingKey(long version, String name) {
+    }
+    
+    @Value("${app.catalog.cache.max-products:10000}")
+    private long maxProducts;
+    
+    @Value("${app.catalog.cache.max-listings:1000}")
+    private long maxListings;
+    
+    @Value("${app.catalog.cache.ttl-minutes:60}")
+    private long ttlMinutes;
+    
+    // Initialisée à l'heure de démarrage pour rester croissante d'un redémarrage à l'autre
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+    private final long startVersion = version.get();
+    
+    // Version par produit modifié depuis le démarrage, et dernière modification touchant tous les produits
+    private final Map<Long, Long> productVersions = new ConcurrentHashMap<>();
+    private volatile long allProductsVersion = startVersion;
+    
+    private Cache<Long, Product> products;
+    private Cache<ListingKey, Object> listings;
+    
+    @PostConstruct
+    void init() {
+        products = Caffeine.newBuilder()
+                .maximumSize(maxProducts)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        listings = Caffeine.newBuilder()
+                .maximumSize(maxListings)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+    }
+    
+    public long getVersion() {
+        return version.get();
+    }
+    
+    // Un produit change aussi quand sa catégorie (embarquée dans la réponse) est modifiée
+    public long getProductVersion(Long id) {
+        return Math.max(productVersions.getOrDefault(id, startVersion), allProductsVersion);
+    }
+    
+    public Product getProduct(Long id, Function<Long, Product> loader) {
+        return products.get(id, loader);
+    }
+    
+    // Les ids absents du cache sont chargés ensemble ; ceux que le chargeur ne trouve pas sont omis
+    public Map<Long, Product> getProducts(Collection<Long> ids, Function<Set<Long>, Map<Long, Product>> loader) {
+        return products.getAll(ids, missing -> loader.apply(Set.copyOf(missing)));
+    }
+    
+    @SuppressWarnings("unchecked")
+    public <T> T getListing(String name, Supplier<T> loader) {
+        return (T) listings.get(new ListingKey(version.get(), name), key -> loader.get());
+    }
+    
+    // Écriture sur un produit : seule son entrée est invalidée, les listes changent de version
+    public void productChanged(Long id) {
+        productVersions.put(id, nextVersion());
+        products.invalidate(id);
+    }
+    
+    // Écriture en masse sur des produits connus : une seule nouvelle version pour tous
+    public void productsChanged(Collection<Long> ids) {
+        long changed = nextVersion();
+        ids.forEach(id -> productVersions.put(id, changed));
+        products.invalidateAll(ids);
+    }
+    
+    // Écriture sur une catégorie : les produits embarquent leur catégorie, tout est invalidé
+    public void categoryChanged() {
+        allProductsChanged();
+    }
+    
+    // Écriture en masse (import) : tous les produits sont invalidés
+    public void allProductsChanged() {
+        allProductsVersion = nextVersion();
+        products.invalidateAll();
+    }
+    
+    public void catalogChanged() {
+        nextVersion();
+    }
+    
+    private long nextVersion() {
+        return version.updateAndGet(v -> Math.max(v + 1, System.currentTimeMillis()));
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("version", version.get());
+        stats.put("products", toMap(products.stats(), products.estimatedSize()));
+        stats.put("listings", toMap(listings.stats(), listings.estimatedSize()));
+        return stats;
+    }
+    
+    private static Map<String, Object> toMap(CacheStats cacheStats, long size) {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", size);
+        stats.put("hits", cacheStats.hitCount());
+        stats.put("misses", cacheStats.missCount());
+        stats.put("hitRate", cacheStats.hitRate());
+        stats.put("evictions", cacheStats.evictionCount());
+        return stats;
+    }
+}
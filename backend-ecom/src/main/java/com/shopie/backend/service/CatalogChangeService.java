@@ -0,0 +1,224 @@
+package com.shopie.backend.service;
+
+import com.shopie.backend.dto.CatalogChangesResponse;
+import com.shopie.backend.dto.ProductListItem;
+import com.shopie.backend.model.CatalogChange;
+import com.shopie.backend.model.Category;
+import com.shopie.backend.repository.CatalogChangeRepository;
+import com.shopie.backend.repository.CategoryRepository;
+import com.shopie.backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Synchronisation incrémentale du catalogue pour les clients hors ligne.
+ * Chaque écriture sur un produit ou une catégorie ajoute une ligne au journal catalog_changes ;
+ * un client envoie la dernière version reçue et ne reçoit que les entités modifiées depuis,
+ * plusieurs modifications d'une même entité étant fusionnées. Un id attribué par une transaction
+ * pas encore validée ne doit pas être sauté : chaque écrivain en cours est enregistré avec le
+ * plus grand id qu'il a vu avant sa première écriture, et la lecture s'arrête au plus petit
+ * d'entre eux. Le journal est purgé au-delà de {@code retention-days} jours ; un client plus
+ * ancien reçoit le catalogue complet.
+ */
+@Service
+public class CatalogChangeService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CatalogChangeService.class);
+    
+    public static final int MAX_CHANGES = 1000;
+    
+    private static final String INSERT_SQL =
+            "INSERT INTO catalog_changes (type_entite, entite_id, operation, date_changement) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_CREATED_PRODUCTS_SQL =
+            "INSERT INTO catalog_changes (type_entite, entite_id, operation, date_changement) "
+                    + "SELECT 'PRODUCT', id, 'UPSERT', ? FROM products WHERE id > ?";
+    
+    @Autowired
+    private CatalogChangeRepository catalogChangeRepository;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${app.catalog.changes.retention-days:30}")
+    private int retentionDays;
+    
+    // Écrivains en cours (transaction ou instruction isolée) : plus grand id du journal vu avant d'écrire.
+    // Tous leurs ids sont au-delà, les ids inférieurs ou égaux sont validés ou abandonnés
+    private final Map<Object, Long> writers = new ConcurrentHashMap<>();
+    
+    public void record(CatalogChange.Type type, Long id, CatalogChange.Operation operation) {
+        write(() -> catalogChangeRepository.save(new CatalogChange(type, id, operation)));
+    }
+    
+    // Écritures en masse : une ligne par entité, en lots JDBC
+    public void recordAll(CatalogChange.Type type, Collection<Long> ids, CatalogChange.Operation operation) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        write(() -> jdbcTemplate.batchUpdate(INSERT_SQL, ids.stream()
+                .map(id -> new Object[]{type.name(), id, operation.name(), now})
+                .toList()));
+    }
+    
+    // Produits insérés en JDBC (import) dont on ne connaît pas les ids : tous ceux au-delà de lastProductId
+    public void recordProductsCreatedAfter(long lastProductId) {
+        write(() -> jdbcTemplate.update(INSERT_CREATED_PRODUCTS_SQL, LocalDateTime.now(), lastProductId));
+    }
+    
+    // L'écrivain est enregistré avant d'obtenir ses ids et retiré à la fin de sa transaction
+    private void write(Runnable insert) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Object token = new Object();
+            writers.put(token, maxId());
+            try {
+                insert.run();
+            } finally {
+                writers.remove(token);
+            }
+            return;
+        }
+        if (!TransactionSynchronizationManager.hasResource(writers)) {
+            Object token = new Object();
+            writers.put(token, maxId());
+            TransactionSynchronizationManager.bindResource(writers, token);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(writers);
+                    writers.remove(token);
+                }
+            });
+        }
+        insert.run();
+    }
+    
+    private long maxId() {
+        Long maxId = catalogChangeRepository.findMaxId();
+        return maxId != null ? maxId : 0L;
+    }
+    
+    // Plus grand id servi sans risque de sauter une écriture en cours. Le maximum est lu avant les
+    // écrivains : un écrivain absent de la liste obtiendra un id supérieur à ce maximum
+    private long safeUpperBound() {
+        long bound = maxId();
+        for (Long floor : writers.values()) {
+            bound = Math.min(bound, floor);
+        }
+        return bound;
+    }
+    
+    public CatalogChangesResponse getChanges(Long since, int limit) {
+        long upTo = safeUpperBound();
+        if (needsFullResync(since)) {
+            return fullResync(upTo);
+        }
+        
+        List<CatalogChange> changes = catalogChangeRepository.findByIdGreaterThanAndIdLessThanEqualOrderByIdAsc(
+                since, upTo, Limit.of(limit + 1));
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+        if (changes.isEmpty()) {
+            return new CatalogChangesResponse(since, false, false, List.of(), List.of(), List.of(), List.of());
+        }
+        
+        // Seule la dernière opération sur chaque entité compte
+        Map<Long, CatalogChange.Operation> productOps = new LinkedHashMap<>();
+        Map<Long, CatalogChange.Operation> categoryOps = new LinkedHashMap<>();
+        for (CatalogChange change : changes) {
+            (change.getType() == CatalogChange.Type.PRODUCT ? productOps : categoryOps)
+                    .put(change.getEntiteId(), change.getOperation());
+        }
+        
+        // Une entité modifiée puis supprimée plus loin dans le journal est introuvable : elle est signalée supprimée
+        List<Long> productIds = upserted(productOps);
+        List<ProductListItem> products = productIds.isEmpty() ? List.of() : productRepository.findListItemsByIdIn(productIds);
+        List<Long> deletedProducts = deleted(productOps, products.stream().map(ProductListItem::getId).collect(Collectors.toSet()));
+        List<Long> categoryIds = upserted(categoryOps);
+        List<Category> categories = categoryIds.isEmpty() ? List.of() : categoryRepository.findAllById(categoryIds);
+        List<Long> deletedCategories = deleted(categoryOps, categories.stream().map(Category::getId).collect(Collectors.toSet()));
+        
+        long version = changes.get(changes.size() - 1).getId();
+        return new CatalogChangesResponse(version, false, hasMore, products, categories, deletedProducts, deletedCategories);
+    }
+    
+    // Premier appel, journal purgé au-delà de la version du client, ou base réinitialisée
+    private boolean needsFullResync(Long since) {
+        if (since == null || since < 0) {
+            return true;
+        }
+        Long maxId = catalogChangeRepository.findMaxId();
+        Long minId = catalogChangeRepository.findMinId();
+        if (maxId == null) {
+            return since > 0;
+        }
+        return since > maxId || since < minId - 1;
+    }
+    
+    // La version est lue avant le catalogue : les changements concurrents seront renvoyés au prochain appel
+    private CatalogChangesResponse fullResync(long version) {
+        return new CatalogChangesResponse(version, true, false, productRepository.findListItems(),
+                categoryRepository.findAll(), List.of(), List.of());
+    }
+    
+    private static List<Long> upserted(Map<Long, CatalogChange.Operation> ops) {
+        return ops.entrySet().stream()
+                .filter(entry -> entry.getValue() == CatalogChange.Operation.UPSERT)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+    
+    private static List<Long> deleted(Map<Long, CatalogChange.Operation> ops, Set<Long> found) {
+        List<Long> ids = new ArrayList<>();
+        ops.forEach((id, operation) -> {
+            if (!found.contains(id)) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+    
+    @Scheduled(initialDelayString = "${app.catalog.changes.purge-initial-delay-ms:900000}",
+               fixedDelayString = "${app.catalog.changes.purge-interval-ms:86400000}")
+    public void purgeOldChanges() {
+        Long maxId = catalogChangeRepository.findMaxId();
+        if (maxId == null) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        Integer removed = transactionTemplate.execute(status -> catalogChangeRepository.deleteOlderThan(cutoff, maxId));
+        if (removed != null && removed > 0) {
+            logger.info("Journal du catalogue : {} changements de plus de {} jours purgés", removed, retentionDays);
+        }
+    }
+}
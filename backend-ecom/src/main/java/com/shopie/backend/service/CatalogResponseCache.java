@@ -0,0 +1,142 @@
+package com.shopie.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Réponses du catalogue déjà sérialisées en JSON, avec leurs variantes gzip et deflate.
+ * Les entrées sont indexées par version du catalogue (voir {@link CatalogCache}) : une lecture
+ * à chaud n'exécute ni Jackson ni compression, les octets sont écrits tels quels.
+ */
+@Component
+public class CatalogResponseCache {
+    
+    public enum Encoding {
+        GZIP("gzip"), DEFLATE("deflate"), IDENTITY(null);
+        
+        private final String header;
+        
+        Encoding(String header) {
+            this.header = header;
+        }
+        
+        public String getHeader() {
+            return header;
+        }
+        
+        // Préférence gzip > deflate > identité, en ignorant les codages refusés (q=0)
+        public static Encoding negotiate(String acceptEncoding) {
+            if (acceptEncoding == null || acceptEncoding.isBlank()) {
+                return IDENTITY;
+            }
+            boolean gzip = false;
+            boolean deflate = false;
+            for (String part : acceptEncoding.split(",")) {
+                String[] params = part.trim().split(";");
+                String coding = params[0].trim().toLowerCase();
+                if (isRefused(params)) {
+                    continue;
+                }
+                gzip |= coding.equals("gzip") || coding.equals("*");
+                deflate |= coding.equals("deflate");
+            }
+            return gzip ? GZIP : deflate ? DEFLATE : IDENTITY;
+        }
+        
+        private static boolean isRefused(String[] params) {
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+    
+    public record EncodedResponse(byte[] json, byte[] gzip, byte[] deflate) {
+        
+        public byte[] bytes(Encoding encoding) {
+            return switch (encoding) {
+                case GZIP -> gzip;
+                case DEFLATE -> deflate;
+                case IDENTITY -> json;
+            };
+        }
+        
+        int weight() {
+            return json.length + gzip.length + deflate.length;
+        }
+    }
+    
+    private record ResponseKey(long version, String name) {
+    }
+    
+    @Autowired
+    private JsonMapper jsonMapper;
+    
+    @Value("${app.catalog.cache.max-response-mb:64}")
+    private long maxResponseMb;
+    
+    private Cache<ResponseKey, EncodedResponse> responses;
+    
+    @PostConstruct
+    void init() {
+        responses = Caffeine.newBuilder()
+                .maximumWeight(maxResponseMb * 1024 * 1024)
+                .weigher((ResponseKey key, EncodedResponse value) -> value.weight())
+                .recordStats()
+                .build();
+    }
+    
+    public EncodedResponse get(long version, String name, Supplier<?> body) {
+        return responses.get(new ResponseKey(version, name), key -> encode(body.get()));
+    }
+    
+    private EncodedResponse encode(Object body) {
+        byte[] json = jsonMapper.writeValueAsBytes(body);
+        return new EncodedResponse(json, compress(json, true), compress(json, false));
+    }
+    
+    private static byte[] compress(byte[] data, boolean gzip) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (OutputStream out = gzip ? new GZIPOutputStream(buffer) : new DeflaterOutputStream(buffer)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+    
+    public Map<String, Object> getStats() {
+        CacheStats cacheStats = responses.stats();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", responses.estimatedSize());
+        stats.put("hits", cacheStats.hitCount());
+        stats.put("misses", cacheStats.missCount());
+        stats.put("hitRate", cacheStats.hitRate());
+        stats.put("evictions", cacheStats.evictionCount());
+        return stats;
+    }
+}
@@ -1,21 +1,169 @@
 package com.shopie.backend.service;
 
+import com.shopie.backend.dto.CategoryJobResponse;
+import com.shopie.backend.dto.CategoryResponse;
+import com.shopie.backend.exception.BadRequestException;
 import com.shopie.backend.exception.ResourceNotFoundException;
+import com.shopie.backend.model.CatalogChange;
 import com.shopie.backend.model.Category;
 import com.shopie.backend.repository.CategoryRepository;
+import com.shopie.backend.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class CategoryService {
     
+    private static final Logger logger = LoggerFactory.getLogger(CategoryService.class);
+    
+    // Suppressions en arrière-plan conservées pour consultation
+    private static final int MAX_JOBS = 100;
+    
+    private static final String PRODUCT_CHUNK_SQL =
+            "SELECT id FROM products WHERE category_id = ? AND archived = ? ORDER BY id LIMIT ? FOR UPDATE";
+    private static final String REASSIGN_SQL = "UPDATE products SET category_id = ? WHERE id IN (";
+    
     @Autowired
     private CategoryRepository categoryRepository;
     
-    public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+    @Autowired
+    private ProductSearchIndex searchIndex;
+    
+    @Autowired
+    private ProductFacetIndex facetIndex;
+    
+    @Autowired
+    private CatalogCache catalogCache;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CatalogChangeService catalogChangeService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${app.categories.delete.chunk-size:500}")
+    private int deleteChunkSize;
+    
+    // Au-delà de ce nombre de produits, la suppression est confiée à une tâche de fond
+    @Value("${app.categories.delete.async-threshold:2000}")
+    private long asyncThreshold;
+    
+    private ExecutorService jobExecutor;
+    
+    private final Map<String, DeletionJob> jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, DeletionJob> eldest) {
+            return size() > MAX_JOBS;
+        }
+    });
+    
+    // Suppression en cours par catégorie
+    private final Map<Long, DeletionJob> runningDeletions = new ConcurrentHashMap<>();
+    
+    private static final class DeletionJob {
+        final String id = UUID.randomUUID().toString();
+        final Long categoryId;
+        final Long targetCategoryId;
+        final long totalProducts;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final AtomicLong movedProducts = new AtomicLong();
+        volatile String status = "RUNNING";
+        volatile LocalDateTime finishedAt;
+        volatile String error;
+        
+        DeletionJob(Long categoryId, Long targetCategoryId, long totalProducts) {
+            this.categoryId = categoryId;
+            this.targetCategoryId = targetCategoryId;
+            this.totalProducts = totalProducts;
+        }
+        
+        CategoryJobResponse toResponse() {
+            return new CategoryJobResponse(id, categoryId, targetCategoryId, status, totalProducts,
+                    movedProducts.get(), startedAt, finishedAt, error);
+        }
+    }
+    
+    @PostConstruct
+    void init() {
+        jobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "category-jobs");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        jobExecutor.shutdown();
+    }
+    
+    // Les comptes viennent de l'index de facettes, tenu à jour à chaque écriture sur un produit
+    public List<CategoryResponse> getAllCategories() {
+        return catalogCache.getListing("categories", () -> toResponses(categoryRepository.findAll()));
+    }
+    
+    private List<CategoryResponse> toResponses(List<Category> categories) {
+        Map<Long, ProductFacetIndex.CategoryCount> counts = facetIndex.categoryCounts();
+        Map<Long, long[]> subtree = new HashMap<>();
+        for (Category category : categories) {
+            ProductFacetIndex.CategoryCount count = counts.get(category.getId());
+            if (count == null) {
+                continue;
+            }
+            // Les produits d'une catégorie comptent pour elle et pour chacun de ses ancêtres
+            for (Long ancestorId : pathIds(category)) {
+                long[] total = subtree.computeIfAbsent(ancestorId, key -> new long[2]);
+                total[0] += count.products();
+                total[1] += count.inStock();
+            }
+        }
+        return categories.stream().map(category -> {
+            ProductFacetIndex.CategoryCount count = counts.getOrDefault(category.getId(),
+                    new ProductFacetIndex.CategoryCount(0, 0));
+            long[] total = subtree.getOrDefault(category.getId(), new long[2]);
+            return new CategoryResponse(category.getId(), category.getNom(), category.getDescription(),
+                    category.getParentId(), category.getChemin(), count.products(), count.inStock(), total[0], total[1]);
+        }).toList();
+    }
+    
+    private static List<Long> pathIds(Category category) {
+        if (category.getChemin() == null) {
+            return List.of(category.getId());
+        }
+        return Arrays.stream(category.getChemin().split("/"))
+                .filter(part -> !part.isEmpty())
+                .map(Long::valueOf)
+                .toList();
+    }
+    
+    // Les catégories créées avant la hiérarchie deviennent des racines
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void fillMissingPaths() {
+        categoryRepository.fillMissingPaths();
     }
     
     public Category getCategoryById(Long id) {
@@ -32,11 +180,25 @@ public class CategoryService {
         return categoryRepository.findByNomContainingIgnoreCase(nom);
     }
     
+    @Transactional
     public Category createCategory(Category category) {
         if (categoryRepository.existsByNom(category.getNom())) {
             throw new IllegalArgumentException("Une catégorie avec ce nom existe déjà");
         }
-        return categoryRepository.save(category);
+        String parentPath = parentPath(category.getParentId());
+        category.setChemin(null);
+        Category saved = categoryRepository.save(category);
+        // Le chemin contient l'id, connu seulement après l'insertion
+        saved.setChemin(checkPath(parentPath + saved.getId() + "/", 0));
+        Category created = categoryRepository.save(saved);
+        catalogChangeService.record(CatalogChange.Type.CATEGORY, created.getId(), CatalogChange.Operation.UPSERT);
+        // Index et version du catalogue après validation : aucune liste ne peut être reconstruite entre-temps sur l'état d'avant
+        AfterCommit.run(() -> {
+            searchIndex.indexCategory(created);
+            facetIndex.indexCategory(created);
+            catalogCache.categoryChanged();
+        });
+        return created;
     }
     
     public Category updateCategory(Long id, Category categoryDetails) {
@@ -51,11 +213,156 @@ public class CategoryService {
         category.setNom(categoryDetails.getNom());
         category.setDescription(categoryDetails.getDescription());
         
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        searchIndex.indexCategory(saved);
+        facetIndex.indexCategory(saved);
+        catalogCache.categoryChanged();
+        catalogChangeService.record(CatalogChange.Type.CATEGORY, saved.getId(), CatalogChange.Operation.UPSERT);
+        return saved;
     }
     
-    public void deleteCategory(Long id) {
+    // Rattache la catégorie (et toute sa sous-arborescence) à un autre parent, ou à la racine si parentId est null
+    @Transactional
+    public Category moveCategory(Long id, Long parentId) {
         Category category = getCategoryById(id);
-        categoryRepository.delete(category);
+        if (Objects.equals(category.getParentId(), parentId)) {
+            return category;
+        }
+        String oldPath = category.getChemin() != null ? category.getChemin() : "/" + id + "/";
+        String parentPath = parentPath(parentId);
+        if (parentPath.startsWith(oldPath)) {
+            throw new BadRequestException("Une catégorie ne peut pas être déplacée sous elle-même ou une de ses sous-catégories");
+        }
+        String newPath = parentPath + id + "/";
+        Integer deepest = categoryRepository.findMaxPathLength(oldPath);
+        checkPath(newPath, deepest != null ? deepest - oldPath.length() : 0);
+        
+        category.setParentId(parentId);
+        category.setChemin(newPath);
+        Category saved = categoryRepository.save(category);
+        // Les descendants suivent : une seule requête sur le préfixe de chemin
+        categoryRepository.replacePathPrefix(oldPath, newPath);
+        catalogChangeService.recordAll(CatalogChange.Type.CATEGORY,
+                categoryRepository.findIdsByPathPrefix(newPath), CatalogChange.Operation.UPSERT);
+        AfterCommit.run(catalogCache::categoryChanged);
+        return saved;
+    }
+    
+    /**
+     * Supprime une catégorie. Ses produits sont rattachés à targetCategoryId (fusion) ou, sans cible,
+     * perdent leur catégorie ; ils ne sont jamais chargés ni supprimés.
+     * Renvoie null si la suppression est terminée, ou la tâche de fond qui s'en charge pour une grande catégorie.
+     */
+    public CategoryJobResponse deleteCategory(Long id, Long targetCategoryId) {
+        getCategoryById(id);
+        if (categoryRepository.existsByParentId(id)) {
+            throw new BadRequestException("La catégorie contient des sous-catégories");
+        }
+        if (targetCategoryId != null) {
+            if (targetCategoryId.equals(id)) {
+                throw new BadRequestException("La catégorie cible doit être différente de la catégorie supprimée");
+            }
+            getCategoryById(targetCategoryId);
+        }
+        DeletionJob running = runningDeletions.get(id);
+        if (running != null) {
+            return running.toResponse();
+        }
+        
+        long total = productRepository.countByCategoryIdAndArchivedFalse(id);
+        if (total <= asyncThreshold) {
+            reassignAndDelete(id, targetCategoryId, null);
+            return null;
+        }
+        
+        DeletionJob job = new DeletionJob(id, targetCategoryId, total);
+        running = runningDeletions.putIfAbsent(id, job);
+        if (running != null) {
+            return running.toResponse();
+        }
+        jobs.put(job.id, job);
+        jobExecutor.execute(() -> {
+            try {
+                reassignAndDelete(id, targetCategoryId, job);
+                job.status = "COMPLETED";
+            } catch (RuntimeException e) {
+                job.status = "FAILED";
+                job.error = e.getMessage();
+                logger.warn("Suppression de la catégorie {} interrompue après {} produits", id, job.movedProducts.get(), e);
+            } finally {
+                job.finishedAt = LocalDateTime.now();
+                runningDeletions.remove(id);
+            }
+        });
+        return job.toResponse();
+    }
+    
+    public CategoryJobResponse getJob(String jobId) {
+        DeletionJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Tâche non trouvée avec l'id: " + jobId);
+        }
+        return job.toResponse();
+    }
+    
+    // Produits déplacés par lots de deleteChunkSize, chacun dans sa propre transaction courte.
+    // Les produits archivés suivent (clé étrangère) mais ne comptent pas dans la progression
+    private void reassignAndDelete(Long categoryId, Long targetCategoryId, DeletionJob job) {
+        while (true) {
+            List<Long> ids = reassignChunk(categoryId, targetCategoryId, false);
+            if (ids.isEmpty()) {
+                break;
+            }
+            searchIndex.moveProducts(ids, targetCategoryId);
+            facetIndex.moveProducts(ids, targetCategoryId);
+            catalogCache.allProductsChanged();
+            catalogChangeService.recordAll(CatalogChange.Type.PRODUCT, ids, CatalogChange.Operation.UPSERT);
+            if (job != null) {
+                job.movedProducts.addAndGet(ids.size());
+            }
+        }
+        while (!reassignChunk(categoryId, targetCategoryId, true).isEmpty()) {
+            // Produits archivés : hors index et hors journal, seul le rattachement change
+        }
+        categoryRepository.deleteById(categoryId);
+        searchIndex.removeCategory(categoryId);
+        facetIndex.removeCategory(categoryId);
+        catalogCache.categoryChanged();
+        catalogChangeService.record(CatalogChange.Type.CATEGORY, categoryId, CatalogChange.Operation.DELETE);
+    }
+    
+    // Lot verrouillé puis déplacé par identifiant : un produit ajouté entre-temps à la catégorie
+    // attend le lot suivant au lieu d'être déplacé sans passer par les index ni le journal
+    private List<Long> reassignChunk(Long categoryId, Long targetCategoryId, boolean archived) {
+        return transactionTemplate.execute(status -> {
+            List<Long> chunk = jdbcTemplate.queryForList(PRODUCT_CHUNK_SQL, Long.class,
+                    categoryId, archived, deleteChunkSize);
+            if (!chunk.isEmpty()) {
+                List<Object> args = new ArrayList<>(chunk.size() + 1);
+                args.add(targetCategoryId);
+                args.addAll(chunk);
+                jdbcTemplate.update(REASSIGN_SQL + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")",
+                        args.toArray());
+            }
+            return chunk;
+        });
+    }
+    
+    // Chemin du parent (« / » pour une racine)
+    private String parentPath(Long parentId) {
+        if (parentId == null) {
+            return "/";
+        }
+        Category parent = categoryRepository.findById(parentId)
+                .orElseThrow(() -> new BadRequestException("Catégorie parente introuvable avec l'id: " + parentId));
+        return parent.getChemin() != null ? parent.getChemin() : "/" + parent.getId() + "/";
+    }
+    
+    // extraLength : longueur ajoutée par les descendants les plus profonds
+    private static String checkPath(String path, int extraLength) {
+        if (path.length() + extraLength > Category.MAX_PATH_LENGTH) {
+            throw new BadRequestException("Arborescence de catégories trop profonde");
+        }
+        return path;
     }
 }
\ No newline at end of file
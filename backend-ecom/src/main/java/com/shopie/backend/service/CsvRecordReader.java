@@ -0,0 +1,123 @@
+package com.shopie.backend.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecture en flux d'un fichier CSV (RFC 4180) : champs entre guillemets, guillemets doublés
+ * et retours à la ligne dans un champ. Un seul enregistrement est en mémoire à la fois.
+ * Le séparateur (virgule ou point-virgule, export Excel français) est choisi d'après l'en-tête.
+ */
+final class CsvRecordReader {
+    
+    private final Reader reader;
+    private char separator;
+    private long line = 1;
+    private long recordLine;
+    private int pending = -2;
+    
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+    
+    // Ligne de début du dernier enregistrement lu
+    long getRecordLine() {
+        return recordLine;
+    }
+    
+    List<String> readHeader() throws IOException {
+        StringBuilder header = new StringBuilder();
+        int c;
+        while ((c = read()) != -1 && c != '\n') {
+            if (c != '\r') {
+                header.append((char) c);
+            }
+        }
+        if (header.isEmpty() && c == -1) {
+            return null;
+        }
+        String text = header.toString();
+        if (text.startsWith("\uFEFF")) {
+            text = text.substring(1);
+        }
+        separator = text.chars().filter(ch -> ch == ';').count() > text.chars().filter(ch -> ch == ',').count() ? ';' : ',';
+        recordLine = line++;
+        return parse(text);
+    }
+    
+    // Retourne null en fin de flux ; les lignes vides sont ignorées
+    List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        recordLine = line;
+        int c;
+        while ((c = read()) != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(next);
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                any = true;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+                any = true;
+            } else if (c == '\n') {
+                line++;
+                if (any || !field.isEmpty()) {
+                    break;
+                }
+                recordLine = line;
+            } else if (c != '\r') {
+                field.append((char) c);
+                any = true;
+            }
+        }
+        if (!any && field.isEmpty()) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+    
+    private List<String> parse(String text) {
+        List<String> fields = new ArrayList<>();
+        for (String field : text.split(String.valueOf(separator), -1)) {
+            String trimmed = field.trim();
+            if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+                trimmed = trimmed.substring(1, trimmed.length() - 1);
+            }
+            fields.add(trimmed);
+        }
+        return fields;
+    }
+    
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+    
+    private void unread(int c) {
+        pending = c;
+    }
+}
@@ -0,0 +1,61 @@
+package com.shopie.backend.service;
+
+import com.shopie.backend.dto.StockAlertRecipient;
+import com.shopie.backend.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Une ligne NDJSON par abonné prévenu, pour les tests et les traitements externes
+@Component
+@ConditionalOnProperty(name = "app.stock-alerts.sink", havingValue = "file")
+public class FileStockNotificationSink implements StockNotificationSink {
+    
+    @Autowired
+    private JsonMapper jsonMapper;
+    
+    @Value("${app.stock-alerts.file:logs/stock-alerts.ndjson}")
+    private String file;
+    
+    @Override
+    public synchronized void send(Product product, List<StockAlertRecipient> recipients) {
+        Path path = Paths.get(file);
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                String date = LocalDateTime.now().toString();
+                for (StockAlertRecipient recipient : recipients) {
+                    Map<String, Object> line = new LinkedHashMap<>();
+                    line.put("date", date);
+                    line.put("productId", product.getId());
+                    line.put("productNom", product.getNom());
+                    line.put("stock", product.getStock());
+                    line.put("userId", recipient.getUserId());
+                    line.put("email", recipient.getEmail());
+                    writer.write(jsonMapper.writeValueAsString(line));
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture des alertes de stock impossible : " + path, e);
+        }
+    }
+}
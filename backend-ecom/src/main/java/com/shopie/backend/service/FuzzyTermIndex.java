@@ -0,0 +1,125 @@
+package com.shopie.backend.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dictionnaire de suppressions (approche SymSpell) pour retrouver les termes connus
+ * à une distance d'édition de 1 ou 2 d'un mot mal saisi ("chausure" → "chaussure").
+ * Chaque terme est enregistré avec toutes ses variantes obtenues en supprimant jusqu'à
+ * {@code maxDistance} caractères ; une recherche génère les mêmes variantes pour le mot
+ * saisi et vérifie les candidats avec la distance de Damerau-Levenshtein (OSA).
+ * Pas thread-safe : l'appelant gère la synchronisation.
+ */
+public final class FuzzyTermIndex {
+    
+    private final int maxDistance;
+    
+    // variante par suppression → termes qui la produisent
+    private final Map<String, Set<String>> deletes = new HashMap<>();
+    // terme → nombre de documents qui l'utilisent
+    private final Map<String, Integer> termCounts = new HashMap<>();
+    
+    public FuzzyTermIndex(int maxDistance) {
+        this.maxDistance = maxDistance;
+    }
+    
+    public void add(String term) {
+        if (termCounts.merge(term, 1, Integer::sum) == 1) {
+            for (String variant : variants(term, maxDistance)) {
+                deletes.computeIfAbsent(variant, k -> new HashSet<>()).add(term);
+            }
+        }
+    }
+    
+    public void remove(String term) {
+        Integer count = termCounts.get(term);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            termCounts.put(term, count - 1);
+            return;
+        }
+        termCounts.remove(term);
+        for (String variant : variants(term, maxDistance)) {
+            Set<String> terms = deletes.get(variant);
+            if (terms != null) {
+                terms.remove(term);
+                if (terms.isEmpty()) {
+                    deletes.remove(variant);
+                }
+            }
+        }
+    }
+    
+    public void clear() {
+        deletes.clear();
+        termCounts.clear();
+    }
+    
+    /**
+     * Termes connus à une distance d'au plus {@code distance} du mot donné, avec leur distance.
+     */
+    public Map<String, Integer> lookup(String word, int distance) {
+        int limit = Math.min(distance, maxDistance);
+        Map<String, Integer> matches = new HashMap<>();
+        for (String variant : variants(word, limit)) {
+            for (String term : deletes.getOrDefault(variant, Set.of())) {
+                if (!matches.containsKey(term) && Math.abs(term.length() - word.length()) <= limit) {
+                    int d = distance(word, term);
+                    if (d <= limit) {
+                        matches.put(term, d);
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+    
+    // Le mot lui-même et toutes ses variantes à 1..depth suppressions
+    private static Set<String> variants(String word, int depth) {
+        Set<String> result = new HashSet<>();
+        result.add(word);
+        Set<String> frontier = Set.of(word);
+        for (int level = 0; level < depth; level++) {
+            Set<String> next = new HashSet<>();
+            for (String current : frontier) {
+                if (current.length() <= 1) {
+                    continue;
+                }
+                for (int i = 0; i < current.length(); i++) {
+                    String variant = current.substring(0, i) + current.substring(i + 1);
+                    if (result.add(variant)) {
+                        next.add(variant);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return result;
+    }
+    
+    // Distance de Damerau-Levenshtein restreinte (transpositions adjacentes)
+    static int distance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
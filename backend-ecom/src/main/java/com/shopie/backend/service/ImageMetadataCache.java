@@ -0,0 +1,104 @@
+package com.shopie.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Métadonnées des fichiers images servis (type de contenu, taille, date, empreinte).
+ * Les noms générés à l'upload (UUID) ne désignent jamais un autre contenu : les métadonnées
+ * sont calculées au premier accès, dont l'empreinte SHA-256 qui sert d'ETag fort, puis
+ * relues en mémoire sans accès au disque. Les entrées sont retirées à la suppression du fichier.
+ */
+@Component
+public class ImageMetadataCache {
+    
+    public record ImageMetadata(Path path, MediaType contentType, long length, long lastModified, String etag) {
+    }
+    
+    @Value("${app.images.metadata-cache.max-entries:10000}")
+    private long maxEntries;
+    
+    private Cache<Path, ImageMetadata> entries;
+    
+    @PostConstruct
+    void init() {
+        entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+    }
+    
+    // null si le fichier n'existe pas (l'absence n'est pas mise en cache)
+    public ImageMetadata get(Path path) {
+        try {
+            return entries.get(path.toAbsolutePath().normalize(), ImageMetadataCache::load);
+        } catch (UncheckedIOException e) {
+            return null;
+        }
+    }
+    
+    public void evict(Path path) {
+        entries.invalidate(path.toAbsolutePath().normalize());
+    }
+    
+    private static ImageMetadata load(Path path) {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            String contentType = Files.probeContentType(path);
+            MediaType mediaType = contentType != null
+                    ? MediaType.parseMediaType(contentType)
+                    : MediaTypeFactory.getMediaType(path.getFileName().toString()).orElse(MediaType.APPLICATION_OCTET_STREAM);
+            return new ImageMetadata(path, mediaType, Files.size(path),
+                    Files.getLastModifiedTime(path).toMillis(), "\"" + sha256(path) + "\"");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static String sha256(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    public Map<String, Object> getStats() {
+        CacheStats cacheStats = entries.stats();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", entries.estimatedSize());
+        stats.put("hits", cacheStats.hitCount());
+        stats.put("misses", cacheStats.missCount());
+        stats.put("hitRate", cacheStats.hitRate());
+        stats.put("evictions", cacheStats.evictionCount());
+        return stats;
+    }
+}
@@ -0,0 +1,338 @@
+package com.shopie.backend.service;
+
+import com.shopie.backend.exception.BadRequestException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Variantes redimensionnées des images produits (miniature, carte, détail).
+ * Après l'upload, la génération est confiée à un pool de {@code workers} threads dont la file
+ * est bornée à {@code queue-capacity} images ; une image n'a jamais plus d'une tâche en attente.
+ * Les variantes sont écrites dans {@code <upload.dir>/variants/<taille>/} via un fichier temporaire
+ * renommé atomiquement : une lecture ne voit jamais de fichier incomplet. Tant qu'une variante
+ * manque (génération en cours, file pleine, image antérieure), l'original est servi et la
+ * génération est reprogrammée ; une image en échec n'est retentée qu'après {@code retry-after-ms},
+ * et une image illisible par ImageIO jamais. Mise à l'échelle par ImageIO et Java2D, par divisions successives
+ * par deux pour limiter le crénelage.
+ */
+@Service
+public class ImageVariantService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+    
+    public enum Variant {
+        THUMB(150), CARD(400), DETAIL(800);
+        
+        // Plus grand côté de la variante, en pixels
+        private final int size;
+        
+        Variant(int size) {
+            this.size = size;
+        }
+        
+        public static Variant fromParam(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Taille d'image inconnue : " + value + " (thumb, card ou detail)");
+            }
+        }
+        
+        private String directory() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+    
+    @Autowired
+    private ImageMetadataCache metadataCache;
+    
+    @Value("${app.upload.dir:uploads/images}")
+    private String uploadDir;
+    
+    @Value("${app.images.variants.workers:2}")
+    private int workers;
+    
+    @Value("${app.images.variants.queue-capacity:200}")
+    private int queueCapacity;
+    
+    // Au-delà, l'image n'est pas décodée (protection mémoire)
+    @Value("${app.images.variants.max-pixels:40000000}")
+    private long maxPixels;
+    
+    @Value("${app.images.variants.jpeg-quality:0.85}")
+    private float jpegQuality;
+    
+    // Délai avant de retenter une image dont la génération a échoué
+    @Value("${app.images.variants.retry-after-ms:3600000}")
+    private long retryAfterMs;
+    
+    private ThreadPoolExecutor executor;
+    
+    // Images dont la génération est en attente ou en cours
+    private final Set<String> scheduled = ConcurrentHashMap.newKeySet();
+    // Images illisibles par ImageIO (format non pris en charge, fichier corrompu) : l'original reste servi
+    private final Set<String> unsupported = ConcurrentHashMap.newKeySet();
+    // Échecs de génération (image trop grande, JPEG CMYK, erreur disque) : date avant laquelle on ne retente pas
+    private final Map<String, Long> failedUntil = new ConcurrentHashMap<>();
+    
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile long lastDurationMs;
+    private volatile LocalDateTime lastGeneratedAt;
+    
+    @PostConstruct
+    void init() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+    
+    // Appelé après l'enregistrement de l'original ; ne bloque jamais l'appelant
+    public void generate(String filename) {
+        checkFilename(filename);
+        if (!scheduled.add(filename)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    createVariants(filename);
+                    failedUntil.remove(filename);
+                } catch (IOException e) {
+                    fail(filename);
+                    logger.warn("Génération des variantes impossible pour {} : {}", filename, e.getMessage());
+                } catch (RuntimeException e) {
+                    fail(filename);
+                    logger.warn("Génération des variantes impossible pour {}", filename, e);
+                } finally {
+                    scheduled.remove(filename);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // File pleine : la variante sera redemandée à la prochaine lecture
+            scheduled.remove(filename);
+            rejected.incrementAndGet();
+        }
+    }
+    
+    // Chemin de la variante si elle est prête, sinon null (l'appelant sert l'original)
+    public Path resolve(String filename, Variant variant) {
+        checkFilename(filename);
+        Path path = variantPath(filename, variant);
+        if (Files.isRegularFile(path)) {
+            return path;
+        }
+        if (!unsupported.contains(filename) && !isBackingOff(filename) && Files.isRegularFile(root().resolve(filename))) {
+            generate(filename);
+        }
+        return null;
+    }
+    
+    private void fail(String filename) {
+        failures.incrementAndGet();
+        failedUntil.put(filename, System.currentTimeMillis() + retryAfterMs);
+    }
+    
+    private boolean isBackingOff(String filename) {
+        Long until = failedUntil.get(filename);
+        if (until == null) {
+            return false;
+        }
+        if (until > System.currentTimeMillis()) {
+            return true;
+        }
+        failedUntil.remove(filename, until);
+        return false;
+    }
+    
+    public void delete(String filename) throws IOException {
+        checkFilename(filename);
+        for (Variant variant : Variant.values()) {
+            Path path = variantPath(filename, variant);
+            Files.deleteIfExists(path);
+            metadataCache.evict(path);
+        }
+        unsupported.remove(filename);
+        failedUntil.remove(filename);
+    }
+    
+    private void createVariants(String filename) throws IOException {
+        long start = System.currentTimeMillis();
+        Path source = root().resolve(filename);
+        if (!Files.isRegularFile(source)) {
+            return;
+        }
+        BufferedImage image = read(source);
+        if (image == null) {
+            unsupported.add(filename);
+            return;
+        }
+        boolean alpha = "png".equals(outputFormat(filename)) && image.getColorModel().hasAlpha();
+        for (Variant variant : Variant.values()) {
+            write(scale(image, variant.size, alpha), variantPath(filename, variant));
+        }
+        generated.incrementAndGet();
+        lastGeneratedAt = LocalDateTime.now();
+        lastDurationMs = System.currentTimeMillis() - start;
+    }
+    
+    // Dimensions lues dans l'en-tête avant tout décodage ; null si aucun lecteur ImageIO ne reconnaît le fichier
+    private BufferedImage read(Path source) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new IOException("Image trop grande : " + pixels + " pixels");
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+    
+    // Réduction dans un carré de size pixels, proportions conservées, sans agrandissement
+    private static BufferedImage scale(BufferedImage source, int size, boolean alpha) {
+        double ratio = Math.min(1.0, (double) size / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                if (!alpha) {
+                    // Les zones transparentes d'un GIF deviennent blanches plutôt que noires
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, width, height);
+                }
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+    
+    private void write(BufferedImage image, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        String format = target.getFileName().toString().endsWith(".png") ? "png" : "jpg";
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        if (format.equals("jpg")) {
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+        }
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    // Les PNG et GIF (transparence possible) donnent des PNG, le reste des JPEG
+    private Path variantPath(String filename, Variant variant) {
+        int dot = filename.lastIndexOf('.');
+        String base = dot > 0 ? filename.substring(0, dot) : filename;
+        return root().resolve("variants").resolve(variant.directory()).resolve(base + "." + outputFormat(filename));
+    }
+    
+    private static String outputFormat(String filename) {
+        String name = filename.toLowerCase(Locale.ROOT);
+        return name.endsWith(".png") || name.endsWith(".gif") ? "png" : "jpg";
+    }
+    
+    private Path root() {
+        return Paths.get(uploadDir);
+    }
+    
+    // Noms générés à l'upload : pas de séparateur ni de remontée dans l'arborescence
+    private static void checkFilename(String filename) {
+        if (filename == null || filename.isEmpty() || filename.startsWith(".")
+                || filename.contains("/") || filename.contains("\\")) {
+            throw new BadRequestException("Nom de fichier invalide : " + filename);
+        }
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("workers", workers);
+        stats.put("scheduled", scheduled.size());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("generated", generated.get());
+        stats.put("rejected", rejected.get());
+        stats.put("failures", failures.get());
+        stats.put("unsupported", unsupported.size());
+        stats.put("backingOff", failedUntil.size());
+        stats.put("lastGeneratedAt", lastGeneratedAt);
+        stats.put("lastDurationMs", lastDurationMs);
+        return stats;
+    }
+}
@@ -0,0 +1,168 @@
+package com.shopie.backend.service;
+
+import com.shopie.backend.model.Product;
+import com.shopie.backend.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index en mémoire des niveaux de stock pour les statistiques d'inventaire.
+ * Les produits sont triés par (stock, id) : les produits en stock faible ou en rupture sont
+ * le début de l'ensemble trié, parcouru sans lire le reste du catalogue. Les compteurs et
+ * la valeur totale du stock (en centimes, sans erreur d'arrondi) sont tenus à jour à chaque
+ * écriture sur un produit.
+ */
+@Component
+public class InventoryIndex {
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Value("${app.analytics.low-stock-threshold:10}")
+    private int lowStockThreshold;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final NavigableSet<Entry> byStock = new TreeSet<>(
+            Comparator.comparingInt(Entry::stock).thenComparingLong(Entry::id));
+    private long totalValueCents;
+    private int lowStockCount;
+    private int outOfStockCount;
+    
+    private record Entry(long id, int stock, long priceCents) {
+    }
+    
+    public record Snapshot(int totalProducts, long totalValueCents, int lowStockThreshold,
+                           int lowStockCount, int outOfStockCount, List<Long> lowStockIds, List<Long> outOfStockIds) {
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Product> products = productRepository.findByArchivedFalse();
+        
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            byStock.clear();
+            totalValueCents = 0;
+            lowStockCount = 0;
+            outOfStockCount = 0;
+            products.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(product.getId());
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Mise à jour en masse : seuls le prix et le stock changent, le produit reste indexé s'il l'était
+    public void updatePriceAndStock(Long productId, BigDecimal prix, int stock) {
+        lock.writeLock().lock();
+        try {
+            if (entries.containsKey(productId)) {
+                removeEntry(productId);
+                addEntry(productId, stock, toCents(prix));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public int getLowStockThreshold() {
+        return lowStockThreshold;
+    }
+    
+    public int getLowStockCount() {
+        lock.readLock().lock();
+        try {
+            return lowStockCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Produits en stock faible (stock croissant, ruptures comprises) et en rupture
+    public Snapshot snapshot() {
+        lock.readLock().lock();
+        try {
+            List<Long> lowStock = new ArrayList<>(lowStockCount);
+            List<Long> outOfStock = new ArrayList<>(outOfStockCount);
+            for (Entry entry : byStock) {
+                if (entry.stock() >= lowStockThreshold) {
+                    break;
+                }
+                lowStock.add(entry.id());
+                if (entry.stock() <= 0) {
+                    outOfStock.add(entry.id());
+                }
+            }
+            return new Snapshot(entries.size(), totalValueCents, lowStockThreshold, lowStockCount, outOfStockCount,
+                    lowStock, outOfStock);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void add(Product product) {
+        addEntry(product.getId(), product.getStock() != null ? product.getStock() : 0, toCents(product.getPrix()));
+    }
+    
+    private void addEntry(long id, int stock, long priceCents) {
+        Entry entry = new Entry(id, stock, priceCents);
+        entries.put(entry.id(), entry);
+        byStock.add(entry);
+        totalValueCents += entry.priceCents() * stock;
+        if (stock < lowStockThreshold) {
+            lowStockCount++;
+        }
+        if (stock <= 0) {
+            outOfStockCount++;
+        }
+    }
+    
+    private void removeEntry(Long productId) {
+        Entry entry = entries.remove(productId);
+        if (entry == null) {
+            return;
+        }
+        byStock.remove(entry);
+        totalValueCents -= entry.priceCents() * entry.stock();
+        if (entry.stock() < lowStockThreshold) {
+            lowStockCount--;
+        }
+        if (entry.stock() <= 0) {
+            outOfStockCount--;
+        }
+    }
+    
+    private static long toCents(BigDecimal prix) {
+        return prix == null ? 0 : prix.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
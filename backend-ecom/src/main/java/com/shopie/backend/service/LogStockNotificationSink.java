@@ -0,0 +1,26 @@
+package com.shopie.backend.service;
+
+import com.shopie.backend.dto.StockAlertRecipient;
+import com.shopie.backend.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Destination par défaut : une ligne de journal par abonné prévenu
+@Component
+@ConditionalOnProperty(name = "app.stock-alerts.sink", havingValue = "log", matchIfMissing = true)
+public class LogStockNotificationSink implements StockNotificationSink {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LogStockNotificationSink.class);
+    
+    @Override
+    public void send(Product product, List<StockAlertRecipient> recipients) {
+        for (StockAlertRecipient recipient : recipients) {
+            logger.info("Alerte retour en stock : {} ({}) pour {} <{}>",
+                    product.getNom(), product.getId(), recipient.getNom(), recipient.getEmail());
+        }
+    }
+}
@@ -11,7 +11,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class OrderService {
@@ -28,6 +30,15 @@ public class OrderService {
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private ProductSearchIndex searchIndex;
+    
+    @Autowired
+    private ProductCoPurchaseIndex coPurchaseIndex;
+    
+    @Autowired
+    private ProductPopularityTracker popularityTracker;
+    
     public List<Order> getUserOrders(User user) {
         return orderRepository.findByUserOrderByDateDesc(user);
     }
@@ -80,6 +91,7 @@ public class OrderService {
         order = orderRepository.save(order);
         
         // Créer les OrderItems
+        Map<Long, Integer> quantities = new HashMap<>();
         for (CartItem cartItem : cartItems) {
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
@@ -88,6 +100,7 @@ public class OrderService {
             orderItem.setPrix(cartItem.getProduct().getPrix());
             
             orderItemRepository.save(orderItem);
+            quantities.merge(cartItem.getProduct().getId(), cartItem.getQuantite(), Integer::sum);
             
             // Stock management disabled - products remain available after orders
             // Product product = cartItem.getProduct();
@@ -98,6 +111,15 @@ public class OrderService {
         // Vider le panier
         cartService.clearCart(user);
         
+        // Popularité des suggestions de recherche, achats associés et tendances :
+        // seulement une fois la commande validée, une annulation ne laisse rien dans les index
+        Long orderId = order.getId();
+        AfterCommit.run(() -> {
+            searchIndex.recordSales(quantities);
+            coPurchaseIndex.recordOrder(orderId, quantities.keySet());
+            popularityTracker.recordPurchases(quantities);
+        });
+        
         return order;
     }
     
@@ -0,0 +1,297 @@
+package com.shopie.backend.service;
+
+import com.shopie.backend.dto.ProductBulkChange;
+import com.shopie.backend.dto.ProductBulkUpdateRequest;
+import com.shopie.backend.dto.ProductBulkUpdateResponse;
+import com.shopie.backend.exception.BadRequestException;
+import com.shopie.backend.exception.ResourceNotFoundException;
+import com.shopie.backend.model.CatalogChange;
+import com.shopie.backend.model.Category;
+import com.shopie.backend.repository.CategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Mise à jour en masse du prix ou du stock des produits sélectionnés par un filtre
+ * (catégorie avec ou sans sous-catégories, liste d'ids, plage de stock).
+ * Les produits sont parcourus par clé en paquets de {@code chunk-size} : chaque paquet est lu
+ * puis modifié par un seul UPDATE ensembliste dans sa propre transaction courte. La nouvelle
+ * valeur est calculée par la même expression SQL en lecture et en écriture, si bien que
+ * l'aperçu, qui suit le même chemin sans rien écrire, annonce exactement ce qui sera appliqué.
+ * Les index sont mis à jour par paquet ; la version du catalogue n'est incrémentée qu'une fois, à la fin.
+ */
+@Service
+public class ProductBulkUpdateService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProductBulkUpdateService.class);
+    
+    private static final int MAX_REPORTED_CHANGES = 100;
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+    private static final BigDecimal MAX_PERCENT = BigDecimal.valueOf(1000);
+    private static final int MAX_STOCK_DELTA = 1_000_000;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private ProductFacetIndex facetIndex;
+    
+    @Autowired
+    private InventoryIndex inventoryIndex;
+    
+    @Autowired
+    private CatalogCache catalogCache;
+    
+    @Autowired
+    private CatalogChangeService catalogChangeService;
+    
+    @Autowired
+    private StockAlertService stockAlertService;
+    
+    @Value("${app.products.bulk-update.chunk-size:500}")
+    private int chunkSize;
+    
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    
+    // Colonne modifiée et nouvelle valeur : une constante, ou une expression SQL sur la ligne
+    private record Assignment(String column, String expression, Object argument, boolean constant) {
+    }
+    
+    // Clause WHERE du filtre (produits actifs uniquement) et ses paramètres
+    private record Filter(String where, List<Object> arguments) {
+    }
+    
+    private record Row(long id, String nom, BigDecimal prix, int stock, BigDecimal nouveauPrix, int nouveauStock) {
+        boolean changed() {
+            return prix.compareTo(nouveauPrix) != 0 || stock != nouveauStock;
+        }
+    }
+    
+    // Parcours en cours
+    private static final class Report {
+        long matched;
+        long changed;
+        long restocked;
+        boolean truncated;
+        final List<ProductBulkChange> changes = new ArrayList<>();
+        final List<Long> changedIds = new ArrayList<>();
+    }
+    
+    public ProductBulkUpdateResponse update(ProductBulkUpdateRequest request, boolean preview) {
+        Assignment assignment = assignment(request);
+        Filter filter = filter(request);
+        if (preview) {
+            return run(assignment, filter, true);
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new BadRequestException("Une mise à jour en masse est déjà en cours");
+        }
+        try {
+            return run(assignment, filter, false);
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    private ProductBulkUpdateResponse run(Assignment assignment, Filter filter, boolean preview) {
+        long start = System.currentTimeMillis();
+        Report report = new Report();
+        String selectSql = "SELECT id, nom, prix, stock" + (assignment.constant() ? "" : ", " + assignment.expression())
+                + " FROM products WHERE " + filter.where() + " AND id > ? ORDER BY id LIMIT ?"
+                + (preview ? "" : " FOR UPDATE");
+        String updateSql = "UPDATE products SET " + assignment.column() + " = " + assignment.expression()
+                + " WHERE " + filter.where() + " AND id > ? AND id <= ?";
+        try {
+            long afterId = 0L;
+            while (true) {
+                long from = afterId;
+                List<Row> chunk = preview
+                        ? select(selectSql, assignment, filter, from)
+                        : transactionTemplate.execute(status -> {
+                            List<Row> rows = select(selectSql, assignment, filter, from);
+                            if (!rows.isEmpty()) {
+                                jdbcTemplate.update(updateSql, arguments(assignment, filter, from, rows.get(rows.size() - 1).id()));
+                                catalogChangeService.recordAll(CatalogChange.Type.PRODUCT,
+                                        rows.stream().filter(Row::changed).map(Row::id).toList(), CatalogChange.Operation.UPSERT);
+                            }
+                            return rows;
+                        });
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                accept(chunk, report, preview);
+                afterId = chunk.get(chunk.size() - 1).id();
+                if (chunk.size() < chunkSize) {
+                    break;
+                }
+            }
+        } finally {
+            // Les paquets déjà validés restent visibles même si un paquet suivant échoue
+            if (!report.changedIds.isEmpty()) {
+                catalogCache.productsChanged(report.changedIds);
+            }
+        }
+        
+        long duration = System.currentTimeMillis() - start;
+        if (!preview) {
+            logger.info("Mise à jour en masse ({}) : {} produits sélectionnés, {} modifiés en {} ms",
+                    assignment.column(), report.matched, report.changed, duration);
+        }
+        return new ProductBulkUpdateResponse(preview, report.matched, report.changed, report.restocked,
+                report.changes, report.truncated, duration);
+    }
+    
+    private List<Row> select(String sql, Assignment assignment, Filter filter, long afterId) {
+        List<Object> args = new ArrayList<>();
+        if (!assignment.constant()) {
+            args.add(assignment.argument());
+        }
+        args.addAll(filter.arguments());
+        args.add(afterId);
+        args.add(chunkSize);
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            BigDecimal prix = rs.getBigDecimal(3);
+            int stock = rs.getInt(4);
+            Object value = assignment.constant() ? assignment.argument() : rs.getObject(5);
+            boolean price = assignment.column().equals("prix");
+            return new Row(rs.getLong(1), rs.getString(2), prix, stock,
+                    price ? toDecimal(value) : prix,
+                    price ? stock : ((Number) value).intValue());
+        }, args.toArray());
+    }
+    
+    private void accept(List<Row> chunk, Report report, boolean preview) {
+        report.matched += chunk.size();
+        for (Row row : chunk) {
+            if (!row.changed()) {
+                continue;
+            }
+            report.changed++;
+            boolean restocked = row.stock() <= 0 && row.nouveauStock() > 0;
+            if (restocked) {
+                report.restocked++;
+            }
+            if (report.changes.size() < MAX_REPORTED_CHANGES) {
+                report.changes.add(new ProductBulkChange(row.id(), row.nom(), row.prix(), row.nouveauPrix(),
+                        row.stock(), row.nouveauStock()));
+            } else {
+                report.truncated = true;
+            }
+            if (preview) {
+                continue;
+            }
+            report.changedIds.add(row.id());
+            facetIndex.updatePriceAndStock(row.id(), row.nouveauPrix(), row.nouveauStock());
+            inventoryIndex.updatePriceAndStock(row.id(), row.nouveauPrix(), row.nouveauStock());
+            if (restocked) {
+                stockAlertService.restocked(row.id());
+            }
+        }
+    }
+    
+    private static Object[] arguments(Assignment assignment, Filter filter, long afterId, long lastId) {
+        List<Object> args = new ArrayList<>();
+        args.add(assignment.argument());
+        args.addAll(filter.arguments());
+        args.add(afterId);
+        args.add(lastId);
+        return args.toArray();
+    }
+    
+    private static Assignment assignment(ProductBulkUpdateRequest request) {
+        BigDecimal value = request.getValue();
+        if (request.getOperation() == null || value == null) {
+            throw new BadRequestException("L'opération et la valeur sont obligatoires");
+        }
+        return switch (request.getOperation()) {
+            case SET_PRICE -> {
+                if (value.signum() <= 0 || value.scale() > 2 || value.compareTo(MAX_PRICE) > 0) {
+                    throw new BadRequestException("Le prix doit être positif, avec au plus 8 chiffres et 2 décimales");
+                }
+                yield new Assignment("prix", "?", value, true);
+            }
+            case PERCENT_PRICE -> {
+                if (value.compareTo(BigDecimal.valueOf(-100)) <= 0 || value.compareTo(MAX_PERCENT) > 0) {
+                    throw new BadRequestException("Le pourcentage doit être compris entre -100 (exclu) et " + MAX_PERCENT);
+                }
+                BigDecimal factor = BigDecimal.ONE.add(value.movePointLeft(2));
+                // Le prix reste d'au moins un centime et tient dans la colonne
+                yield new Assignment("prix", "LEAST(GREATEST(ROUND(prix * ?, 2), 0.01), " + MAX_PRICE + ")", factor, false);
+            }
+            case SET_STOCK -> {
+                if (value.signum() < 0 || value.stripTrailingZeros().scale() > 0 || value.compareTo(BigDecimal.valueOf(Integer.MAX_VALUE)) > 0) {
+                    throw new BadRequestException("Le stock doit être un entier positif ou nul");
+                }
+                yield new Assignment("stock", "?", value.intValue(), true);
+            }
+            case DELTA_STOCK -> {
+                if (value.stripTrailingZeros().scale() > 0 || value.abs().compareTo(BigDecimal.valueOf(MAX_STOCK_DELTA)) > 0) {
+                    throw new BadRequestException("La variation de stock doit être un entier d'au plus " + MAX_STOCK_DELTA + " en valeur absolue");
+                }
+                // Le stock ne descend pas sous zéro
+                yield new Assignment("stock", "GREATEST(COALESCE(stock, 0) + ?, 0)", value.intValue(), false);
+            }
+        };
+    }
+    
+    private Filter filter(ProductBulkUpdateRequest request) {
+        StringBuilder where = new StringBuilder("archived = FALSE");
+        List<Object> args = new ArrayList<>();
+        if (request.getCategoryId() != null) {
+            Category category = categoryRepository.findById(request.getCategoryId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Catégorie non trouvée avec l'ID: " + request.getCategoryId()));
+            if (request.isSubcategories() && category.getChemin() != null) {
+                where.append(" AND category_id IN (SELECT id FROM categories WHERE chemin LIKE ?)");
+                args.add(category.getChemin() + "%");
+            } else {
+                where.append(" AND category_id = ?");
+                args.add(category.getId());
+            }
+        }
+        if (request.getIds() != null) {
+            List<Long> ids = request.getIds().stream().filter(Objects::nonNull).distinct().toList();
+            if (ids.isEmpty()) {
+                throw new BadRequestException("La liste d'ids est vide");
+            }
+            if (ids.size() > ProductService.MAX_BATCH_SIZE) {
+                throw new BadRequestException("Au plus " + ProductService.MAX_BATCH_SIZE + " ids par mise à jour");
+            }
+            where.append(" AND id IN (").append(String.join(", ", Collections.nCopies(ids.size(), "?"))).append(")");
+            args.addAll(ids);
+        }
+        if (request.getMinStock() != null && request.getMaxStock() != null && request.getMinStock() > request.getMaxStock()) {
+            throw new BadRequestException("Le stock minimum dépasse le stock maximum");
+        }
+        if (request.getMinStock() != null) {
+            where.append(" AND stock >= ?");
+            args.add(request.getMinStock());
+        }
+        if (request.getMaxStock() != null) {
+            where.append(" AND stock <= ?");
+            args.add(request.getMaxStock());
+        }
+        return new Filter(where.toString(), args);
+    }
+    
+    private static BigDecimal toDecimal(Object value) {
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+}
@@ -0,0 +1,294 @@
+package com.shopie.backend.service;
+
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Index « les clients ont aussi acheté ».
+ * Matrice creuse produit × produit du nombre de commandes contenant les deux produits,
+ * mise à jour à chaque commande, avec pour chaque produit ses {@link #TOP_N} meilleurs voisins
+ * tenus à jour incrémentalement (les comptes ne font qu'augmenter). Les listes de voisins
+ * publiées sont immuables : une lecture est un simple accès par clé, sans verrou ni requête.
+ * La reconstruction complète lit order_items en partitions d'ids de commande traitées en
+ * parallèle, puis sélectionne les voisins de chaque produit par tas bornés.
+ */
+@Component
+public class ProductCoPurchaseIndex {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProductCoPurchaseIndex.class);
+    
+    public static final int TOP_N = 20;
+    // Au-delà, une commande (achat en gros) n'apporte que du bruit et coûte n² paires
+    private static final int MAX_ORDER_PRODUCTS = 100;
+    
+    private static final String ORDER_RANGE_SQL = "SELECT MIN(order_id), MAX(order_id) FROM order_items";
+    private static final String PAIRS_SQL =
+            "SELECT order_id, product_id FROM order_items WHERE order_id >= ? AND order_id <= ? ORDER BY order_id";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    // 0 : un thread par processeur
+    @Value("${app.recommendations.rebuild-partitions:0}")
+    private int partitions;
+    
+    private final Object lock = new Object();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    
+    // Protégés par lock
+    private Map<Long, Row> rows = new HashMap<>();
+    private List<PendingOrder> pending;
+    
+    // Voisins publiés, lus sans verrou
+    private volatile Map<Long, List<Long>> neighbors = new ConcurrentHashMap<>();
+    
+    private volatile LocalDateTime lastRebuildAt;
+    private volatile long lastRebuildMs;
+    
+    private record PendingOrder(Long orderId, Set<Long> productIds) {
+    }
+    
+    // Résultat d'une partition : comptes par paire et ids des commandes lues
+    private record ScanResult(Map<Long, Map<Long, Integer>> counts, Roaring64Bitmap orderIds) {
+    }
+    
+    // Ligne de la matrice : comptes par produit co-acheté et meilleurs voisins triés
+    private static final class Row {
+        final Map<Long, Integer> counts;
+        final long[] top = new long[TOP_N];
+        int size;
+        
+        Row(Map<Long, Integer> counts) {
+            this.counts = counts;
+        }
+        
+        void increment(Long other, int by) {
+            offer(other, counts.merge(other, by, Integer::sum));
+        }
+        
+        // Insertion ou remontée de other dans le top, en O(TOP_N)
+        void offer(long other, int count) {
+            int pos = -1;
+            for (int i = 0; i < size; i++) {
+                if (top[i] == other) {
+                    pos = i;
+                    break;
+                }
+            }
+            if (pos < 0) {
+                if (size < TOP_N) {
+                    pos = size++;
+                } else if (better(other, count, top[size - 1])) {
+                    pos = size - 1;
+                } else {
+                    return;
+                }
+                top[pos] = other;
+            }
+            while (pos > 0 && better(top[pos], count, top[pos - 1])) {
+                long previous = top[pos - 1];
+                top[pos - 1] = top[pos];
+                top[pos] = previous;
+                pos--;
+            }
+        }
+        
+        // À compte égal, le plus petit id passe devant pour un ordre stable
+        boolean better(long id, int count, long other) {
+            int otherCount = counts.get(other);
+            return count > otherCount || (count == otherCount && id < other);
+        }
+        
+        List<Long> topIds() {
+            List<Long> ids = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                ids.add(top[i]);
+            }
+            return List.copyOf(ids);
+        }
+    }
+    
+    public List<Long> getNeighbors(Long productId) {
+        return neighbors.getOrDefault(productId, List.of());
+    }
+    
+    public void recordOrder(Long orderId, Collection<Long> productIds) {
+        Set<Long> distinct = new HashSet<>(productIds);
+        if (distinct.size() < 2 || distinct.size() > MAX_ORDER_PRODUCTS) {
+            return;
+        }
+        synchronized (lock) {
+            if (pending != null) {
+                pending.add(new PendingOrder(orderId, distinct));
+            }
+            apply(rows, neighbors, distinct);
+        }
+    }
+    
+    private static void apply(Map<Long, Row> rows, Map<Long, List<Long>> published, Set<Long> productIds) {
+        for (Long product : productIds) {
+            Row row = rows.computeIfAbsent(product, key -> new Row(new HashMap<>()));
+            for (Long other : productIds) {
+                if (!other.equals(product)) {
+                    row.increment(other, 1);
+                }
+            }
+            published.put(product, row.topIds());
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            // Les commandes enregistrées pendant la lecture sont rejouées après l'échange,
+            // sauf celles que la lecture a vues (validées avant elle, enregistrées après)
+            synchronized (lock) {
+                pending = new ArrayList<>();
+            }
+            long[] range = jdbcTemplate.queryForObject(ORDER_RANGE_SQL,
+                    (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)});
+            List<ScanResult> parts = range == null || range[1] == 0
+                    ? List.of()
+                    : scanPartitions(range[0], range[1]);
+            
+            Map<Long, Map<Long, Integer>> merged = new HashMap<>();
+            Roaring64Bitmap scanned = new Roaring64Bitmap();
+            for (ScanResult part : parts) {
+                scanned.or(part.orderIds());
+                part.counts().forEach((product, counts) -> {
+                    Map<Long, Integer> target = merged.computeIfAbsent(product, key -> new HashMap<>());
+                    counts.forEach((other, count) -> target.merge(other, count, Integer::sum));
+                });
+            }
+            
+            Map<Long, Row> newRows = new HashMap<>(merged.size() * 2);
+            Map<Long, List<Long>> newNeighbors = new ConcurrentHashMap<>(merged.size() * 2);
+            merged.forEach((product, counts) -> {
+                Row row = select(counts);
+                newRows.put(product, row);
+                newNeighbors.put(product, row.topIds());
+            });
+            
+            synchronized (lock) {
+                for (PendingOrder order : pending) {
+                    if (order.orderId() == null || !scanned.contains(order.orderId())) {
+                        apply(newRows, newNeighbors, order.productIds());
+                    }
+                }
+                pending = null;
+                rows = newRows;
+                neighbors = newNeighbors;
+            }
+            lastRebuildAt = LocalDateTime.now();
+            lastRebuildMs = System.currentTimeMillis() - start;
+            logger.info("Index des achats associés reconstruit : {} produits en {} ms", newRows.size(), lastRebuildMs);
+        } finally {
+            synchronized (lock) {
+                pending = null;
+            }
+            rebuilding.set(false);
+        }
+    }
+    
+    // Une plage d'ids de commande par thread ; chaque commande tombe entièrement dans une seule plage
+    private List<ScanResult> scanPartitions(long minOrderId, long maxOrderId) {
+        int threads = partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors();
+        long span = maxOrderId - minOrderId + 1;
+        int count = (int) Math.max(1, Math.min(threads, span));
+        long step = (span + count - 1) / count;
+        
+        try (ExecutorService executor = Executors.newFixedThreadPool(count)) {
+            List<CompletableFuture<ScanResult>> futures = new ArrayList<>(count);
+            for (long from = minOrderId; from <= maxOrderId; from += step) {
+                long to = Math.min(from + step - 1, maxOrderId);
+                long partitionStart = from;
+                futures.add(CompletableFuture.supplyAsync(() -> scan(partitionStart, to), executor));
+            }
+            return futures.stream().map(CompletableFuture::join).toList();
+        }
+    }
+    
+    // Lecture en flux des lignes d'une plage, regroupées par commande
+    private ScanResult scan(long fromOrderId, long toOrderId) {
+        Map<Long, Map<Long, Integer>> counts = new HashMap<>();
+        Roaring64Bitmap orderIds = new Roaring64Bitmap();
+        Set<Long> current = new HashSet<>();
+        long[] currentOrder = {-1};
+        jdbcTemplate.query(PAIRS_SQL, rs -> {
+            long orderId = rs.getLong(1);
+            if (orderId != currentOrder[0]) {
+                countPairs(counts, current);
+                current.clear();
+                currentOrder[0] = orderId;
+                orderIds.addLong(orderId);
+            }
+            current.add(rs.getLong(2));
+        }, fromOrderId, toOrderId);
+        countPairs(counts, current);
+        return new ScanResult(counts, orderIds);
+    }
+    
+    private static void countPairs(Map<Long, Map<Long, Integer>> counts, Set<Long> productIds) {
+        if (productIds.size() < 2 || productIds.size() > MAX_ORDER_PRODUCTS) {
+            return;
+        }
+        for (Long product : productIds) {
+            Map<Long, Integer> row = counts.computeIfAbsent(product, key -> new HashMap<>());
+            for (Long other : productIds) {
+                if (!other.equals(product)) {
+                    row.merge(other, 1, Integer::sum);
+                }
+            }
+        }
+    }
+    
+    // Sélection des meilleurs voisins par un tas min borné à TOP_N éléments
+    private static Row select(Map<Long, Integer> counts) {
+        Comparator<Map.Entry<Long, Integer>> weakestFirst = Map.Entry.<Long, Integer>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Integer>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Integer>> heap = new PriorityQueue<>(TOP_N + 1, weakestFirst);
+        for (Map.Entry<Long, Integer> entry : counts.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > TOP_N) {
+                heap.poll();
+            }
+        }
+        Row row = new Row(counts);
+        row.size = heap.size();
+        for (int i = row.size - 1; i >= 0; i--) {
+            row.top[i] = heap.poll().getKey();
+        }
+        return row;
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (lock) {
+            stats.put("products", rows.size());
+            stats.put("pairs", rows.values().stream().mapToLong(row -> row.counts.size()).sum());
+        }
+        stats.put("rebuilding", rebuilding.get());
+        stats.put("lastRebuildAt", lastRebuildAt);
+        stats.put("lastRebuildMs", lastRebuildMs);
+        return stats;
+    }
+}
@@ -0,0 +1,378 @@
+package com.shopie.backend.service;
+
+import com.shopie.backend.dto.ProductSort;
+import com.shopie.backend.model.Category;
+import com.shopie.backend.model.Product;
+import com.shopie.backend.repository.CategoryRepository;
+import com.shopie.backend.repository.ProductRepository;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index de facettes en mémoire pour le filtrage du catalogue.
+ * Un bitmap compressé (Roaring) d'ids de produits par catégorie, un pour les produits en stock,
+ * et un index trié par prix dont chaque entrée porte le bitmap des produits à ce prix.
+ * Un filtre se résout par ET/OU entre bitmaps, sans requête SQL ; les comptes par facette
+ * ignorent le filtre de leur propre facette (facettes disjonctives), comme dans les boutiques classiques.
+ */
+@Component
+public class ProductFacetIndex {
+    
+    // Bornes des tranches de prix proposées comme facette ; la dernière tranche est ouverte
+    private static final BigDecimal[] PRICE_BOUNDS = {
+            BigDecimal.ZERO, BigDecimal.valueOf(25), BigDecimal.valueOf(50), BigDecimal.valueOf(100),
+            BigDecimal.valueOf(250), BigDecimal.valueOf(500)
+    };
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final RoaringBitmap inStock = new RoaringBitmap();
+    private final Map<Long, RoaringBitmap> byCategory = new HashMap<>();
+    private final NavigableMap<BigDecimal, RoaringBitmap> byPrice = new TreeMap<>();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final Map<Long, String> categoryNames = new HashMap<>();
+    
+    private record Entry(String nom, Long categoryId, BigDecimal prix, boolean inStock) {
+    }
+    
+    public record FacetCount(String value, String label, long count) {
+    }
+    
+    public record CategoryCount(long products, long inStock) {
+    }
+    
+    public record Result(List<Long> ids, List<FacetCount> categories, List<FacetCount> stock, List<FacetCount> prices) {
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Category> categories = categoryRepository.findAll();
+        List<Product> products = productRepository.findByArchivedFalse();
+        
+        lock.writeLock().lock();
+        try {
+            all.clear();
+            inStock.clear();
+            byCategory.clear();
+            byPrice.clear();
+            entries.clear();
+            categoryNames.clear();
+            categories.forEach(category -> categoryNames.put(category.getId(), category.getNom()));
+            products.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(toInt(product.getId()));
+            add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(toInt(productId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Id reçu tel quel d'une requête : hors de la plage des int, le produit ne peut pas être indexé
+    public boolean contains(Long productId) {
+        if (productId == null || productId < 0 || productId > Integer.MAX_VALUE) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return entries.containsKey(toInt(productId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public void indexCategory(Category category) {
+        lock.writeLock().lock();
+        try {
+            categoryNames.put(category.getId(), category.getNom());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Produits rattachés à une autre catégorie (null : sans catégorie) par une mise à jour en masse
+    public void moveProducts(Collection<Long> productIds, Long categoryId) {
+        lock.writeLock().lock();
+        try {
+            productIds.forEach(id -> moveEntry(toInt(id), categoryId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Mise à jour en masse du prix et du stock : le nom et la catégorie sont inchangés
+    public void updatePriceAndStock(Long productId, BigDecimal prix, int stock) {
+        lock.writeLock().lock();
+        try {
+            int id = toInt(productId);
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                return;
+            }
+            if (entry.prix() != null) {
+                removeFrom(byPrice, entry.prix().stripTrailingZeros(), id);
+            }
+            byPrice.computeIfAbsent(prix.stripTrailingZeros(), key -> new RoaringBitmap()).add(id);
+            boolean available = stock > 0;
+            if (available) {
+                inStock.add(id);
+            } else {
+                inStock.remove(id);
+            }
+            entries.put(id, new Entry(entry.nom(), entry.categoryId(), prix, available));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Suppression d'une catégorie : les produits qui y restent perdent leur catégorie
+    public void removeCategory(Long categoryId) {
+        lock.writeLock().lock();
+        try {
+            categoryNames.remove(categoryId);
+            RoaringBitmap members = byCategory.get(categoryId);
+            if (members != null) {
+                members.clone().forEach((int id) -> moveEntry(id, null));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void moveEntry(int id, Long categoryId) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            return;
+        }
+        if (entry.categoryId() != null) {
+            removeFrom(byCategory, entry.categoryId(), id);
+        }
+        if (categoryId != null) {
+            byCategory.computeIfAbsent(categoryId, key -> new RoaringBitmap()).add(id);
+        }
+        entries.put(id, new Entry(entry.nom(), categoryId, entry.prix(), entry.inStock()));
+    }
+    
+    // Nombre de produits et de produits en stock rattachés directement à chaque catégorie
+    public Map<Long, CategoryCount> categoryCounts() {
+        lock.readLock().lock();
+        try {
+            Map<Long, CategoryCount> counts = new HashMap<>();
+            byCategory.forEach((categoryId, members) -> counts.put(categoryId,
+                    new CategoryCount(members.getLongCardinality(), RoaringBitmap.andCardinality(members, inStock))));
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Filtre le catalogue. Un paramètre null (ou une collection vide de catégories) ne filtre pas.
+     * textMatches contient les produits trouvés par la recherche texte, par pertinence décroissante :
+     * sans tri explicite, les résultats gardent cet ordre.
+     */
+    public Result filter(Set<Long> categoryIds, BigDecimal minPrice, BigDecimal maxPrice, Boolean available,
+                         List<Long> textMatches, ProductSort sort, Sort.Direction direction) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap text = textMatches == null ? null : bitmapOf(textMatches);
+            RoaringBitmap category = categoryIds == null || categoryIds.isEmpty() ? null : FastAggregation.or(
+                    categoryIds.stream().map(byCategory::get).filter(Objects::nonNull).iterator());
+            RoaringBitmap price = minPrice == null && maxPrice == null ? null : priceRange(minPrice, maxPrice);
+            RoaringBitmap stock = available == null ? null : available ? inStock : RoaringBitmap.andNot(all, inStock);
+            
+            RoaringBitmap matches = and(text, category, price, stock);
+            return new Result(
+                    order(matches, textMatches, sort, direction),
+                    categoryCounts(and(text, price, stock)),
+                    stockCounts(and(text, category, price)),
+                    priceCounts(and(text, category, stock)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private RoaringBitmap and(RoaringBitmap... filters) {
+        RoaringBitmap result = all.clone();
+        for (RoaringBitmap filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+    
+    private RoaringBitmap priceRange(BigDecimal min, BigDecimal max) {
+        NavigableMap<BigDecimal, RoaringBitmap> range = byPrice;
+        if (min != null) {
+            range = range.tailMap(min, true);
+        }
+        if (max != null) {
+            range = range.headMap(max, true);
+        }
+        return FastAggregation.or(range.values().iterator());
+    }
+    
+    private List<FacetCount> categoryCounts(RoaringBitmap base) {
+        List<FacetCount> counts = new ArrayList<>();
+        byCategory.forEach((categoryId, members) -> {
+            long count = RoaringBitmap.andCardinality(base, members);
+            if (count > 0) {
+                counts.add(new FacetCount(String.valueOf(categoryId), categoryNames.get(categoryId), count));
+            }
+        });
+        counts.sort(Comparator.comparingLong(FacetCount::count).reversed().thenComparing(FacetCount::value));
+        return counts;
+    }
+    
+    private List<FacetCount> stockCounts(RoaringBitmap base) {
+        long available = RoaringBitmap.andCardinality(base, inStock);
+        return List.of(
+                new FacetCount("true", "En stock", available),
+                new FacetCount("false", "Rupture de stock", base.getLongCardinality() - available));
+    }
+    
+    private List<FacetCount> priceCounts(RoaringBitmap base) {
+        List<FacetCount> counts = new ArrayList<>();
+        for (int i = 0; i < PRICE_BOUNDS.length; i++) {
+            BigDecimal from = PRICE_BOUNDS[i];
+            boolean last = i == PRICE_BOUNDS.length - 1;
+            // Tranches [min, max[ pour qu'un prix rond ne soit compté qu'une fois
+            NavigableMap<BigDecimal, RoaringBitmap> range = last
+                    ? byPrice.tailMap(from, true)
+                    : byPrice.subMap(from, true, PRICE_BOUNDS[i + 1], false);
+            long count = RoaringBitmap.andCardinality(base, FastAggregation.or(range.values().iterator()));
+            String value = last ? from.toPlainString() + "-" : from.toPlainString() + "-" + PRICE_BOUNDS[i + 1].toPlainString();
+            String label = last ? "Plus de " + from.toPlainString() + " €" : from.toPlainString() + " - " + PRICE_BOUNDS[i + 1].toPlainString() + " €";
+            counts.add(new FacetCount(value, label, count));
+        }
+        return counts;
+    }
+    
+    private List<Long> order(RoaringBitmap matches, List<Long> textMatches, ProductSort sort, Sort.Direction direction) {
+        List<Long> ids = new ArrayList<>(matches.getCardinality());
+        if (sort == null && textMatches != null) {
+            for (Long id : textMatches) {
+                if (matches.contains(toInt(id))) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        }
+        ProductSort order = sort == null ? ProductSort.ID : sort;
+        boolean descending = order == ProductSort.NEWEST || direction == Sort.Direction.DESC;
+        switch (order) {
+            case PRICE -> {
+                // Parcours de l'index trié par prix, ids croissants à prix égal (comme le catalogue paginé)
+                Collection<RoaringBitmap> levels = descending ? byPrice.descendingMap().values() : byPrice.values();
+                for (RoaringBitmap level : levels) {
+                    RoaringBitmap hits = RoaringBitmap.and(level, matches);
+                    IntIterator iterator = descending ? hits.getReverseIntIterator() : hits.getIntIterator();
+                    while (iterator.hasNext()) {
+                        ids.add((long) iterator.next());
+                    }
+                }
+            }
+            case NAME -> {
+                matches.forEach((int id) -> ids.add((long) id));
+                Comparator<Long> byName = Comparator.comparing((Long id) -> entries.get(toInt(id)).nom(), String.CASE_INSENSITIVE_ORDER)
+                        .thenComparing(Comparator.naturalOrder());
+                ids.sort(descending ? byName.reversed() : byName);
+            }
+            default -> {
+                IntIterator iterator = descending ? matches.getReverseIntIterator() : matches.getIntIterator();
+                while (iterator.hasNext()) {
+                    ids.add((long) iterator.next());
+                }
+            }
+        }
+        return ids;
+    }
+    
+    private void add(Product product) {
+        int id = toInt(product.getId());
+        Long categoryId = product.getCategory() != null ? product.getCategory().getId() : null;
+        boolean available = product.getStock() != null && product.getStock() > 0;
+        Entry entry = new Entry(product.getNom(), categoryId, product.getPrix(), available);
+        entries.put(id, entry);
+        all.add(id);
+        if (available) {
+            inStock.add(id);
+        }
+        if (categoryId != null) {
+            byCategory.computeIfAbsent(categoryId, key -> new RoaringBitmap()).add(id);
+        }
+        if (entry.prix() != null) {
+            byPrice.computeIfAbsent(entry.prix().stripTrailingZeros(), key -> new RoaringBitmap()).add(id);
+        }
+    }
+    
+    private void removeEntry(int id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        all.remove(id);
+        inStock.remove(id);
+        if (entry.categoryId() != null) {
+            removeFrom(byCategory, entry.categoryId(), id);
+        }
+        if (entry.prix() != null) {
+            removeFrom(byPrice, entry.prix().stripTrailingZeros(), id);
+        }
+    }
+    
+    private static <K> void removeFrom(Map<K, RoaringBitmap> bitmaps, K key, int id) {
+        RoaringBitmap members = bitmaps.get(key);
+        if (members != null) {
+            members.remove(id);
+            if (members.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+    
+    private static RoaringBitmap bitmapOf(Collection<Long> ids) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        ids.forEach(id -> bitmap.add(toInt(id)));
+        return bitmap;
+    }
+    
+    // Les ids de produits (auto-incrément) tiennent dans un int, ce que les bitmaps Roaring exigent
+    private static int toInt(Long id) {
+        return Math.toIntExact(id);
+    }
+}
@@ -0,0 +1,383 @@
+package com.shopie.backend.service;
+
+import com.shopie.backend.dto.ProductImportError;
+import com.shopie.backend.dto.ProductImportResponse;
+import com.shopie.backend.dto.ProductImportRow;
+import com.shopie.backend.exception.BadRequestException;
+import com.shopie.backend.exception.ConflictException;
+import com.shopie.backend.model.CatalogChange;
+import com.shopie.backend.model.Category;
+import com.shopie.backend.model.Product;
+import com.shopie.backend.repository.CategoryRepository;
+import com.shopie.backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Import en masse du catalogue depuis un flux CSV ou NDJSON.
+ * Les lignes sont lues une à une, validées, puis écrites par lots JDBC de {@code batch-size}
+ * lignes, chaque paquet de {@code chunk-size} lignes dans sa propre transaction : une erreur
+ * base de données ne rejette que le paquet concerné. Les catégories sont résolues par nom
+ * via une table chargée une fois. Une fois un paquet validé, ses produits sont indexés un à un
+ * et leurs entrées de cache invalidées, sans reconstruire les index : une écriture concurrente
+ * sur d'autres produits n'est pas écrasée.
+ */
+@Service
+public class ProductImportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+    
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_TEXT_LENGTH = 255;
+    
+    private static final String INSERT_SQL =
+            "INSERT INTO products (nom, description, prix, image_url, stock, category_id) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL =
+            "UPDATE products SET nom = ?, description = ?, prix = ?, image_url = ?, stock = ?, category_id = ? WHERE id = ? AND archived = FALSE";
+    private static final String MAX_ID_SQL = "SELECT COALESCE(MAX(id), 0) FROM products";
+    private static final String CREATED_IDS_SQL = "SELECT id FROM products WHERE id > ? ORDER BY id";
+    
+    public enum Format {
+        CSV, NDJSON
+    }
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private JsonMapper jsonMapper;
+    
+    @Autowired
+    private ProductSearchIndex searchIndex;
+    
+    @Autowired
+    private ProductFacetIndex facetIndex;
+    
+    @Autowired
+    private CatalogCache catalogCache;
+    
+    @Autowired
+    private CatalogChangeService catalogChangeService;
+    
+    @Autowired
+    private InventoryIndex inventoryIndex;
+    
+    @Value("${app.products.import.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${app.products.import.chunk-size:5000}")
+    private int chunkSize;
+    
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    
+    // Ligne validée, prête à être écrite
+    private record PendingRow(long line, Long id, Object[] values) {
+    }
+    
+    // Paquet validé : lignes des mises à jour introuvables et ids des produits écrits
+    private record ChunkResult(List<Long> notFound, List<Long> writtenIds) {
+    }
+    
+    // État d'un import en cours
+    private static final class Report {
+        long rows;
+        long created;
+        long updated;
+        long rejected;
+        boolean truncated;
+        final List<ProductImportError> errors = new ArrayList<>();
+        
+        void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ProductImportError(line, message));
+            } else {
+                truncated = true;
+            }
+        }
+    }
+    
+    public ProductImportResponse importProducts(Reader input, Format format) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ConflictException("Un import de produits est déjà en cours");
+        }
+        long start = System.currentTimeMillis();
+        Report report = new Report();
+        try {
+            Map<String, Long> categoriesByName = new HashMap<>();
+            for (Category category : categoryRepository.findAll()) {
+                categoriesByName.put(categoryKey(category.getNom()), category.getId());
+            }
+            
+            List<PendingRow> chunk = new ArrayList<>(chunkSize);
+            BufferedReader reader = new BufferedReader(input);
+            if (format == Format.CSV) {
+                readCsv(reader, categoriesByName, chunk, report);
+            } else {
+                readNdjson(reader, categoriesByName, chunk, report);
+            }
+            flush(chunk, report);
+        } catch (IOException | UncheckedIOException e) {
+            throw new BadRequestException("Lecture du fichier d'import impossible : " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+        
+        long duration = System.currentTimeMillis() - start;
+        logger.info("Import produits : {} lignes, {} créés, {} mis à jour, {} rejetés en {} ms",
+                report.rows, report.created, report.updated, report.rejected, duration);
+        return new ProductImportResponse(report.rows, report.created, report.updated, report.rejected,
+                report.errors, report.truncated, duration);
+    }
+    
+    private void readCsv(BufferedReader reader, Map<String, Long> categories, List<PendingRow> chunk,
+                         Report report) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.readHeader();
+        if (header == null) {
+            throw new BadRequestException("Le fichier CSV est vide");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+        }
+        if (!columns.containsKey("nom") || !columns.containsKey("prix")) {
+            throw new BadRequestException("L'en-tête CSV doit contenir au moins les colonnes nom et prix");
+        }
+        
+        List<String> fields;
+        while ((fields = csv.readRecord()) != null) {
+            long line = csv.getRecordLine();
+            report.rows++;
+            try {
+                ProductImportRow row = new ProductImportRow(
+                        toLong(column(fields, columns, "id")),
+                        column(fields, columns, "nom"),
+                        column(fields, columns, "description"),
+                        toDecimal(column(fields, columns, "prix")),
+                        toInteger(column(fields, columns, "stock")),
+                        column(fields, columns, "imageurl"),
+                        firstNonBlank(column(fields, columns, "categorie"), column(fields, columns, "category")),
+                        toLong(column(fields, columns, "categoryid")));
+                accept(line, row, categories, chunk, report);
+            } catch (NumberFormatException e) {
+                report.reject(line, "Valeur numérique invalide");
+            }
+        }
+    }
+    
+    private void readNdjson(BufferedReader reader, Map<String, Long> categories, List<PendingRow> chunk,
+                            Report report) throws IOException {
+        String text;
+        long line = 0;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            report.rows++;
+            try {
+                accept(line, jsonMapper.readValue(text, ProductImportRow.class), categories, chunk, report);
+            } catch (JacksonException e) {
+                report.reject(line, "JSON invalide : " + e.getOriginalMessage());
+            }
+        }
+    }
+    
+    private void accept(long line, ProductImportRow row, Map<String, Long> categories, List<PendingRow> chunk,
+                        Report report) {
+        String error = validate(row);
+        if (error != null) {
+            report.reject(line, error);
+            return;
+        }
+        Long categoryId = row.getCategoryId();
+        if (categoryId == null && row.getCategorie() != null && !row.getCategorie().isBlank()) {
+            categoryId = categories.get(categoryKey(row.getCategorie()));
+            if (categoryId == null) {
+                report.reject(line, "Catégorie inconnue : " + row.getCategorie());
+                return;
+            }
+        } else if (categoryId != null && !categories.containsValue(categoryId)) {
+            report.reject(line, "Catégorie inconnue : " + categoryId);
+            return;
+        }
+        
+        Object[] values = {
+                row.getNom().trim(),
+                blankToNull(row.getDescription()),
+                row.getPrix(),
+                blankToNull(row.getImageUrl()),
+                row.getStock() != null ? row.getStock() : 0,
+                categoryId
+        };
+        chunk.add(new PendingRow(line, row.getId(), values));
+        if (chunk.size() >= chunkSize) {
+            flush(chunk, report);
+        }
+    }
+    
+    private static String validate(ProductImportRow row) {
+        if (row.getNom() == null || row.getNom().isBlank()) {
+            return "Le nom du produit est obligatoire";
+        }
+        if (row.getNom().length() > MAX_TEXT_LENGTH) {
+            return "Le nom du produit dépasse " + MAX_TEXT_LENGTH + " caractères";
+        }
+        if (row.getPrix() == null) {
+            return "Le prix est obligatoire";
+        }
+        if (row.getPrix().signum() <= 0) {
+            return "Le prix doit être positif";
+        }
+        if (row.getPrix().scale() > 2 || row.getPrix().precision() - row.getPrix().scale() > 8) {
+            return "Le prix doit avoir au plus 8 chiffres et 2 décimales";
+        }
+        if (row.getStock() != null && row.getStock() < 0) {
+            return "Le stock ne peut pas être négatif";
+        }
+        if (row.getImageUrl() != null && row.getImageUrl().length() > MAX_TEXT_LENGTH) {
+            return "L'URL de l'image dépasse " + MAX_TEXT_LENGTH + " caractères";
+        }
+        return null;
+    }
+    
+    // Écrit le paquet en lots JDBC dans une seule transaction ; en cas d'échec, tout le paquet est rejeté
+    private void flush(List<PendingRow> chunk, Report report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<PendingRow> inserts = chunk.stream().filter(row -> row.id() == null).toList();
+        List<PendingRow> updates = chunk.stream().filter(row -> row.id() != null).toList();
+        ChunkResult result;
+        try {
+            result = transactionTemplate.execute(status -> {
+                Long lastId = jdbcTemplate.queryForObject(MAX_ID_SQL, Long.class);
+                for (int from = 0; from < inserts.size(); from += batchSize) {
+                    List<PendingRow> batch = inserts.subList(from, Math.min(from + batchSize, inserts.size()));
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch.stream().map(PendingRow::values).toList());
+                }
+                // Ids relus dans la transaction : un produit créé en parallèle est au pire réindexé
+                List<Long> writtenIds = inserts.isEmpty()
+                        ? new ArrayList<>()
+                        : new ArrayList<>(jdbcTemplate.queryForList(CREATED_IDS_SQL, Long.class, lastId));
+                List<Long> notFound = new ArrayList<>();
+                List<Long> updatedIds = new ArrayList<>();
+                for (int from = 0; from < updates.size(); from += batchSize) {
+                    List<PendingRow> batch = updates.subList(from, Math.min(from + batchSize, updates.size()));
+                    int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, batch.stream().map(ProductImportService::updateArgs).toList());
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] == 0) {
+                            notFound.add(batch.get(i).line());
+                        } else {
+                            updatedIds.add(batch.get(i).id());
+                        }
+                    }
+                }
+                // Journal de synchronisation écrit dans la même transaction que le paquet
+                if (!inserts.isEmpty()) {
+                    catalogChangeService.recordProductsCreatedAfter(lastId);
+                }
+                catalogChangeService.recordAll(CatalogChange.Type.PRODUCT, updatedIds, CatalogChange.Operation.UPSERT);
+                writtenIds.addAll(updatedIds);
+                return new ChunkResult(notFound, writtenIds);
+            });
+        } catch (DataAccessException e) {
+            logger.warn("Import produits : paquet de {} lignes rejeté", chunk.size(), e);
+            String message = "Rejet du paquet par la base de données : " + e.getMostSpecificCause().getMessage();
+            chunk.forEach(row -> report.reject(row.line(), message));
+            chunk.clear();
+            return;
+        }
+        chunk.clear();
+        report.created += inserts.size();
+        report.updated += updates.size() - result.notFound().size();
+        result.notFound().forEach(line -> report.reject(line, "Produit introuvable pour mise à jour"));
+        index(result.writtenIds());
+    }
+    
+    // Après validation du paquet, comme une écriture unitaire : relecture des produits écrits et indexation
+    private void index(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            for (Product product : productRepository.findByIdInAndArchivedFalse(batch)) {
+                searchIndex.index(product);
+                facetIndex.index(product);
+                inventoryIndex.index(product);
+            }
+        }
+        if (!ids.isEmpty()) {
+            catalogCache.productsChanged(ids);
+        }
+    }
+    
+    private static Object[] updateArgs(PendingRow row) {
+        Object[] args = new Object[row.values().length + 1];
+        System.arraycopy(row.values(), 0, args, 0, row.values().length);
+        args[args.length - 1] = row.id();
+        return args;
+    }
+    
+    private static String column(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+    
+    private static String categoryKey(String nom) {
+        return nom.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static String firstNonBlank(String first, String second) {
+        return first != null ? first : second;
+    }
+    
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+    
+    private static Long toLong(String value) {
+        return value == null ? null : Long.valueOf(value);
+    }
+    
+    private static Integer toInteger(String value) {
+        return value == null ? null : Integer.valueOf(value);
+    }
+    
+    // Accepte la virgule décimale des exports français ("12,50")
+    private static BigDecimal toDecimal(String value) {
+        return value == null ? null : new BigDecimal(value.replace(',', '.'));
+    }
+}
@@ -0,0 +1,183 @@
+package com.shopie.backend.service;
+
+import com.shopie.backend.model.ProductStats;
+import com.shopie.backend.repository.ProductStatsRepository;
+import com.shopie.backend.repository.ProductStatsRepositoryCustom;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs de popularité (vues, ajouts au panier, achats) à fort débit d'écriture.
+ * Un événement n'incrémente qu'un {@link LongAdder} en mémoire (cellules réparties entre threads,
+ * sans contention) ; les compteurs sont vidés périodiquement vers product_stats par lots d'upserts.
+ * Chaque vidage met aussi à jour un score de tendance à décroissance exponentielle
+ * (demi-vie {@code half-life-hours}) et publie le classement : les lectures ne touchent pas la base.
+ * Les compteurs sont approximatifs : un incrément concurrent au vidage peut être perdu.
+ */
+@Component
+public class ProductPopularityTracker {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProductPopularityTracker.class);
+    
+    public static final int MAX_TRENDING = 100;
+    
+    private static final double VIEW_WEIGHT = 1;
+    private static final double CART_WEIGHT = 5;
+    private static final double PURCHASE_WEIGHT = 10;
+    // En dessous, un score est oublié
+    private static final double MIN_SCORE = 0.01;
+    
+    @Autowired
+    private ProductStatsRepository productStatsRepository;
+    
+    @Value("${app.products.popularity.half-life-hours:24}")
+    private double halfLifeHours;
+    
+    private static final class Counters {
+        final LongAdder views = new LongAdder();
+        final LongAdder carts = new LongAdder();
+        final LongAdder purchases = new LongAdder();
+    }
+    
+    // Incréments depuis le dernier vidage
+    private final Map<Long, Counters> pending = new ConcurrentHashMap<>();
+    
+    // Scores à lastDecay, modifiés uniquement pendant un vidage (synchronisé)
+    private final Map<Long, Double> scores = new HashMap<>();
+    private long lastDecay = System.currentTimeMillis();
+    
+    // Publiés à chaque vidage, lus sans verrou
+    private volatile Map<Long, Double> publishedScores = Map.of();
+    private volatile List<Long> trending = List.of();
+    
+    private volatile LocalDateTime lastFlushAt;
+    private volatile long lastFlushRows;
+    
+    public void recordView(Long productId) {
+        counters(productId).views.increment();
+    }
+    
+    public void recordCartAdd(Long productId, int quantite) {
+        counters(productId).carts.add(quantite);
+    }
+    
+    public void recordPurchases(Map<Long, Integer> quantities) {
+        quantities.forEach((productId, quantite) -> counters(productId).purchases.add(quantite));
+    }
+    
+    private Counters counters(Long productId) {
+        Counters counters = pending.get(productId);
+        return counters != null ? counters : pending.computeIfAbsent(productId, key -> new Counters());
+    }
+    
+    // Produits par score de tendance décroissant (au plus MAX_TRENDING)
+    public List<Long> getTrending() {
+        return trending;
+    }
+    
+    public double getScore(Long productId) {
+        return publishedScores.getOrDefault(productId, 0.0);
+    }
+    
+    // Suppression d'un produit : il sort du classement au prochain vidage.
+    // Appelé après validation de l'archivage : la suppression a besoin de sa propre transaction
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public synchronized void remove(Long productId) {
+        pending.remove(productId);
+        scores.remove(productId);
+        productStatsRepository.deleteById(productId);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        long now = System.currentTimeMillis();
+        LocalDateTime date = LocalDateTime.now();
+        scores.clear();
+        for (ProductStats stats : productStatsRepository.findByScoreTendanceGreaterThan(MIN_SCORE)) {
+            double score = stats.getScoreTendance() * decay(Duration.between(stats.getDateMaj(), date).toMillis());
+            if (score >= MIN_SCORE) {
+                scores.put(stats.getProductId(), score);
+            }
+        }
+        lastDecay = now;
+        publish();
+    }
+    
+    @Scheduled(initialDelayString = "${app.products.popularity.flush-interval-ms:30000}",
+               fixedDelayString = "${app.products.popularity.flush-interval-ms:30000}")
+    @PreDestroy
+    public synchronized void flush() {
+        long now = System.currentTimeMillis();
+        double factor = decay(now - lastDecay);
+        lastDecay = now;
+        scores.replaceAll((id, score) -> score * factor);
+        scores.values().removeIf(score -> score < MIN_SCORE);
+        
+        List<ProductStatsRepositoryCustom.Delta> deltas = new ArrayList<>();
+        for (Map.Entry<Long, Counters> entry : pending.entrySet()) {
+            Counters counters = entry.getValue();
+            long views = counters.views.sumThenReset();
+            long carts = counters.carts.sumThenReset();
+            long purchases = counters.purchases.sumThenReset();
+            if (views == 0 && carts == 0 && purchases == 0) {
+                // Produit sans activité depuis le dernier vidage : l'entrée est libérée
+                pending.remove(entry.getKey(), counters);
+                continue;
+            }
+            double score = scores.merge(entry.getKey(),
+                    views * VIEW_WEIGHT + carts * CART_WEIGHT + purchases * PURCHASE_WEIGHT, Double::sum);
+            deltas.add(new ProductStatsRepositoryCustom.Delta(entry.getKey(), views, carts, purchases, score));
+        }
+        
+        if (!deltas.isEmpty()) {
+            try {
+                productStatsRepository.addAll(deltas, LocalDateTime.now());
+            } catch (DataAccessException e) {
+                // Les scores en mémoire restent à jour ; seuls les totaux de ce vidage sont perdus
+                logger.warn("Écriture des compteurs de popularité impossible ({} produits)", deltas.size(), e);
+            }
+        }
+        lastFlushAt = LocalDateTime.now();
+        lastFlushRows = deltas.size();
+        publish();
+    }
+    
+    private void publish() {
+        publishedScores = Map.copyOf(scores);
+        trending = scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(MAX_TRENDING)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+    
+    private double decay(long elapsedMs) {
+        return Math.pow(0.5, elapsedMs / (halfLifeHours * 3_600_000));
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pendingProducts", pending.size());
+        stats.put("scoredProducts", publishedScores.size());
+        stats.put("halfLifeHours", halfLifeHours);
+        stats.put("lastFlushAt", lastFlushAt);
+        stats.put("lastFlushRows", lastFlushRows);
+        return stats;
+    }
+}
@@ -0,0 +1,388 @@
+package com.shopie.backend.service;
+
+import com.shopie.backend.model.Category;
+import com.shopie.backend.model.Product;
+import com.shopie.backend.repository.CategoryRepository;
+import com.shopie.backend.repository.OrderItemRepository;
+import com.shopie.backend.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Index inversé en mémoire pour la recherche de produits.
+ * Chaque mot (nom, description, nom de catégorie) est indexé en entier et par préfixes
+ * (à partir de 2 lettres) pour les correspondances partielles. Le score d'un produit
+ * dépend du champ (nom > catégorie > description) et de la longueur du préfixe trouvé.
+ * Les mots des noms de produits et de catégories alimentent aussi un dictionnaire
+ * {@link FuzzyTermIndex} pour la recherche tolérante aux fautes de frappe, et les libellés
+ * un {@link SuggestionTrie} pour l'autocomplétion pondérée par les ventes.
+ */
+@Component
+public class ProductSearchIndex {
+    
+    private static final float NAME_WEIGHT = 3f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_FACTOR = 0.5f;
+    private static final int MIN_PREFIX = 2;
+    private static final int MAX_EDIT_DISTANCE = 2;
+    private static final int SUGGESTION_TOP_K = 10;
+    private static final int MAX_SUGGESTION_PATH = 40;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    
+    @Autowired
+    private ProductPopularityTracker popularityTracker;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    // terme ou préfixe → (id produit → score)
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+    private final Map<Long, IndexedProduct> documents = new HashMap<>();
+    private final Map<Long, String> categoryNames = new HashMap<>();
+    private final FuzzyTermIndex fuzzyTerms = new FuzzyTermIndex(MAX_EDIT_DISTANCE);
+    private final SuggestionTrie suggestions = new SuggestionTrie(SUGGESTION_TOP_K);
+    // Quantités vendues par produit, pour pondérer les suggestions
+    private final Map<Long, Long> salesByProduct = new HashMap<>();
+    
+    private record IndexedProduct(String nom, String description, Long categoryId, Set<String> keys, Set<String> nameTerms) {
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Category> categories = categoryRepository.findAll();
+        List<Product> products = productRepository.findByArchivedFalse();
+        List<Object[]> sales = orderItemRepository.sumQuantitiesByProduct();
+        
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            categoryNames.clear();
+            fuzzyTerms.clear();
+            suggestions.clear();
+            salesByProduct.clear();
+            sales.forEach(row -> salesByProduct.put((Long) row[0], ((Number) row[1]).longValue()));
+            categories.forEach(category -> categoryNames.put(category.getId(), category.getNom()));
+            products.forEach(product -> addDocument(product.getId(), product.getNom(), product.getDescription(), categoryIdOf(product)));
+            categories.forEach(category -> putCategorySuggestion(category.getId()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(product.getId());
+            addDocument(product.getId(), product.getNom(), product.getDescription(), categoryIdOf(product));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Création ou renommage d'une catégorie : réindexe ses produits
+    public void indexCategory(Category category) {
+        lock.writeLock().lock();
+        try {
+            categoryNames.put(category.getId(), category.getNom());
+            reindexWhere(doc -> category.getId().equals(doc.categoryId()));
+            putCategorySuggestion(category.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Produits rattachés à une autre catégorie (null : sans catégorie) par une mise à jour en masse
+    public void moveProducts(Collection<Long> productIds, Long categoryId) {
+        lock.writeLock().lock();
+        try {
+            productIds.forEach(id -> moveDocument(id, categoryId));
+            if (categoryId != null) {
+                putCategorySuggestion(categoryId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Suppression d'une catégorie : les produits qui y restent perdent leur catégorie
+    public void removeCategory(Long categoryId) {
+        lock.writeLock().lock();
+        try {
+            categoryNames.remove(categoryId);
+            suggestions.remove("C" + categoryId);
+            List<Long> ids = documents.entrySet().stream()
+                    .filter(entry -> categoryId.equals(entry.getValue().categoryId()))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            ids.forEach(id -> moveDocument(id, null));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void moveDocument(Long id, Long categoryId) {
+        IndexedProduct doc = documents.get(id);
+        if (doc != null) {
+            removeDocument(id);
+            addDocument(id, doc.nom(), doc.description(), categoryId);
+        }
+    }
+    
+    /**
+     * Recherche les produits contenant tous les mots de la requête (en entier ou en préfixe),
+     * triés par pertinence décroissante.
+     */
+    public List<Long> search(String query) {
+        List<String> terms = TextNormalizer.tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (String term : terms) {
+                Map<Long, Float> matches = postings.getOrDefault(term, Map.of());
+                if (scores == null) {
+                    scores = new HashMap<>(matches);
+                } else {
+                    scores.keySet().retainAll(matches.keySet());
+                    scores.replaceAll((id, score) -> score + matches.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return rank(scores);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Recherche tolérante aux fautes : chaque mot de la requête est rapproché des mots
+     * des noms de produits et de catégories à une distance d'édition de 1 (mots de 4 à 6 lettres)
+     * ou 2 (mots plus longs). Le score est réduit selon la distance.
+     */
+    public List<Long> searchFuzzy(String query) {
+        List<String> terms = TextNormalizer.tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (String term : terms) {
+                Map<Long, Float> matches = new HashMap<>();
+                fuzzyTerms.lookup(term, maxDistanceFor(term)).forEach((candidate, distance) ->
+                        postings.getOrDefault(candidate, Map.of()).forEach((id, score) ->
+                                matches.merge(id, score / (1 + distance), Math::max)));
+                if (scores == null) {
+                    scores = matches;
+                } else {
+                    scores.keySet().retainAll(matches.keySet());
+                    scores.replaceAll((id, score) -> score + matches.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return rank(scores);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Autocomplétion : produits et catégories dont un mot du libellé commence par le préfixe,
+     * les plus vendus d'abord.
+     */
+    public List<SuggestionTrie.Entry> suggest(String prefix, int limit) {
+        String key = normalizeLabel(prefix);
+        if (key.isBlank()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return suggestions.complete(key, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Appelé après une commande : augmente le poids des produits vendus et de leurs catégories
+    public void recordSales(Map<Long, Integer> quantities) {
+        lock.writeLock().lock();
+        try {
+            Set<Long> touchedCategories = new HashSet<>();
+            quantities.forEach((productId, quantite) -> {
+                salesByProduct.merge(productId, quantite.longValue(), Long::sum);
+                IndexedProduct doc = documents.get(productId);
+                if (doc != null) {
+                    putProductSuggestion(productId, doc.nom(), doc.categoryId());
+                    if (doc.categoryId() != null) {
+                        touchedCategories.add(doc.categoryId());
+                    }
+                }
+            });
+            touchedCategories.forEach(this::putCategorySuggestion);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // À pertinence égale, les produits en tendance passent devant
+    private List<Long> rank(Map<Long, Float> scores) {
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Float>comparingByValue().reversed()
+                        .thenComparing(entry -> popularityTracker.getScore(entry.getKey()), Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+    
+    private static int maxDistanceFor(String term) {
+        if (term.length() <= 3) {
+            return 0;
+        }
+        return term.length() <= 6 ? 1 : MAX_EDIT_DISTANCE;
+    }
+    
+    private void reindexWhere(Predicate<IndexedProduct> filter) {
+        Map<Long, IndexedProduct> targets = new HashMap<>();
+        documents.forEach((id, doc) -> {
+            if (filter.test(doc)) {
+                targets.put(id, doc);
+            }
+        });
+        targets.forEach((id, doc) -> {
+            removeDocument(id);
+            addDocument(id, doc.nom(), doc.description(), doc.categoryId());
+        });
+    }
+    
+    private void addDocument(Long id, String nom, String description, Long categoryId) {
+        String categoryName = categoryId != null ? categoryNames.get(categoryId) : null;
+        Map<String, Float> keyScores = new HashMap<>();
+        collectKeys(nom, NAME_WEIGHT, keyScores);
+        collectKeys(categoryName, CATEGORY_WEIGHT, keyScores);
+        collectKeys(description, DESCRIPTION_WEIGHT, keyScores);
+        
+        Set<String> nameTerms = new HashSet<>();
+        for (String term : TextNormalizer.tokenize(nom + " " + (categoryName != null ? categoryName : ""))) {
+            nameTerms.add(term);
+            // Forme au singulier ("telephones" → "telephone"), déjà indexée comme préfixe
+            if (term.length() > 3 && (term.endsWith("s") || term.endsWith("x"))) {
+                nameTerms.add(term.substring(0, term.length() - 1));
+            }
+        }
+        nameTerms.forEach(fuzzyTerms::add);
+        
+        keyScores.forEach((key, score) -> postings.computeIfAbsent(key, k -> new HashMap<>()).put(id, score));
+        documents.put(id, new IndexedProduct(nom, description, categoryId, keyScores.keySet(), nameTerms));
+        putProductSuggestion(id, nom, categoryId);
+    }
+    
+    private void putProductSuggestion(Long id, String nom, Long categoryId) {
+        long weight = salesByProduct.getOrDefault(id, 0L);
+        suggestions.put(new SuggestionTrie.Entry("P" + id, nom, "PRODUCT", id, weight), suggestionPaths(nom));
+    }
+    
+    // Poids d'une catégorie : ventes cumulées de ses produits
+    private void putCategorySuggestion(Long categoryId) {
+        String nom = categoryNames.get(categoryId);
+        if (nom == null) {
+            return;
+        }
+        long weight = documents.entrySet().stream()
+                .filter(entry -> categoryId.equals(entry.getValue().categoryId()))
+                .mapToLong(entry -> salesByProduct.getOrDefault(entry.getKey(), 0L))
+                .sum();
+        suggestions.put(new SuggestionTrie.Entry("C" + categoryId, nom, "CATEGORY", categoryId, weight), suggestionPaths(nom));
+    }
+    
+    // Un chemin par début de mot : "Samsung Galaxy" → "samsung galaxy", "galaxy"
+    private static List<String> suggestionPaths(String label) {
+        String normalized = normalizeLabel(label).strip();
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                String path = normalized.substring(i);
+                paths.add(path.length() > MAX_SUGGESTION_PATH ? path.substring(0, MAX_SUGGESTION_PATH) : path);
+            }
+        }
+        return paths;
+    }
+    
+    private static String normalizeLabel(String text) {
+        return TextNormalizer.fold(text).replaceAll("[^a-z0-9]+", " ").stripLeading();
+    }
+    
+    private void removeDocument(Long id) {
+        IndexedProduct previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        previous.nameTerms().forEach(fuzzyTerms::remove);
+        suggestions.remove("P" + id);
+        for (String key : previous.keys()) {
+            Map<Long, Float> ids = postings.get(key);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+    
+    // Un mot complet vaut le poids du champ, un préfixe une fraction proportionnelle à sa longueur
+    private void collectKeys(String text, float weight, Map<String, Float> keyScores) {
+        for (String token : TextNormalizer.tokenize(text)) {
+            keyScores.merge(token, weight, Math::max);
+            for (int length = MIN_PREFIX; length < token.length(); length++) {
+                float score = weight * PREFIX_FACTOR * length / token.length();
+                keyScores.merge(token.substring(0, length), score, Math::max);
+            }
+        }
+    }
+    
+    private static Long categoryIdOf(Product product) {
+        return product.getCategory() != null ? product.getCategory().getId() : null;
+    }
+}
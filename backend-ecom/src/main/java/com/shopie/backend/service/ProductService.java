@@ -1,42 +1,212 @@
 package com.shopie.backend.service;
 
+import com.shopie.backend.dto.CursorPageResponse;
+import com.shopie.backend.dto.ProductBatchResponse;
+import com.shopie.backend.dto.FacetCount;
+import com.shopie.backend.dto.ProductFilterResponse;
+import com.shopie.backend.dto.ProductListItem;
+import com.shopie.backend.dto.ProductSort;
+import com.shopie.backend.dto.SuggestionResponse;
+import com.shopie.backend.exception.BadRequestException;
 import com.shopie.backend.exception.ResourceNotFoundException;
+import com.shopie.backend.model.CatalogChange;
+import com.shopie.backend.model.Category;
 import com.shopie.backend.model.Product;
+import com.shopie.backend.repository.ProductKey;
+import com.shopie.backend.repository.CategoryRepository;
 import com.shopie.backend.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
     
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_BATCH_SIZE = 500;
+    
     @Autowired
     private ProductRepository productRepository;
     
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private ProductSearchIndex searchIndex;
+    
+    @Autowired
+    private CatalogCache catalogCache;
+    
+    @Autowired
+    private ProductFacetIndex facetIndex;
+    
+    @Autowired
+    private CatalogChangeService catalogChangeService;
+    
+    @Autowired
+    private ProductCoPurchaseIndex coPurchaseIndex;
+    
+    @Autowired
+    private ProductPopularityTracker popularityTracker;
+    
+    @Autowired
+    private InventoryIndex inventoryIndex;
+    
+    @Autowired
+    private StockAlertService stockAlertService;
+    
+    // Les lectures publiques passent par le cache : les instances renvoyées ne doivent pas être modifiées
+    public List<ProductListItem> getAllProducts() {
+        return catalogCache.getListing("all", () -> List.copyOf(productRepository.findListItems()));
     }
     
-    public List<Product> getAvailableProducts() {
-        return productRepository.findAvailableProducts();
+    public List<ProductListItem> getAvailableProducts() {
+        return catalogCache.getListing("available", () -> List.copyOf(productRepository.findAvailableListItems()));
     }
     
     public Product getProductById(Long id) {
-        return productRepository.findById(id)
+        return catalogCache.getProduct(id, this::loadProduct);
+    }
+    
+    // Multi-get : une seule requête IN pour les produits absents du cache, ordre de la demande conservé
+    public ProductBatchResponse getProductsByIds(List<Long> ids) {
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Au plus " + MAX_BATCH_SIZE + " produits par requête");
+        }
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        Map<Long, Product> found = catalogCache.getProducts(requested, missing -> productRepository.findByIdInAndArchivedFalse(missing).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity())));
+        
+        List<Product> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            Product product = found.get(id);
+            if (product != null) {
+                items.add(product);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new ProductBatchResponse(items, missing);
+    }
+    
+    // Chargement direct (hors cache) pour les écritures ; un produit archivé n'existe plus pour le catalogue
+    private Product loadProduct(Long id) {
+        return productRepository.findByIdAndArchivedFalse(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Produit non trouvé avec l'ID: " + id));
     }
     
-    public List<Product> searchProducts(String nom) {
-        return productRepository.findByNomContainingIgnoreCase(nom);
+    // Recherche via l'index en mémoire : seuls les produits de la page demandée sont chargés
+    public Page<ProductListItem> searchProducts(String nom, boolean fuzzy, Pageable pageable) {
+        List<Long> rankedIds = fuzzy ? searchIndex.searchFuzzy(nom) : searchIndex.search(nom);
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+        List<ProductListItem> content = findAllInOrder(rankedIds.subList(from, to));
+        return new PageImpl<>(content, pageable, rankedIds.size());
+    }
+    
+    // Seuls les produits existants sont comptés : des ids arbitraires ne créent pas de compteurs
+    public void recordView(Long productId) {
+        if (facetIndex.contains(productId)) {
+            popularityTracker.recordView(productId);
+        }
+    }
+    
+    public List<ProductListItem> getTrending(int limit) {
+        List<Long> ids = popularityTracker.getTrending();
+        return findAllInOrder(ids.subList(0, Math.min(limit, ids.size())));
+    }
+    
+    // Voisins précalculés par l'index : les produits supprimés depuis sont simplement omis
+    public List<ProductListItem> getAlsoBought(Long productId, int limit) {
+        List<ProductListItem> items = findAllInOrder(coPurchaseIndex.getNeighbors(productId));
+        return items.size() > limit ? items.subList(0, limit) : items;
     }
     
+    // Charge une page d'ids en une requête IN, en conservant l'ordre demandé
+    private List<ProductListItem> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductListItem> byId = productRepository.findListItemsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductListItem::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+    
+    // Filtrage par facettes entièrement en mémoire ; seule la page demandée est chargée
+    public ProductFilterResponse filterProducts(Set<Long> categoryIds, BigDecimal minPrice, BigDecimal maxPrice,
+                                                Boolean inStock, String query, ProductSort sort,
+                                                Sort.Direction direction, Pageable pageable) {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new BadRequestException("Le prix minimum doit être inférieur au prix maximum");
+        }
+        List<Long> textMatches = query == null || query.isBlank() ? null : searchIndex.search(query);
+        ProductFacetIndex.Result result = facetIndex.filter(categoryIds, minPrice, maxPrice, inStock, textMatches, sort, direction);
+        
+        List<Long> ids = result.ids();
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + pageable.getPageSize(), ids.size());
+        List<ProductListItem> items = findAllInOrder(ids.subList(from, to));
+        return new ProductFilterResponse(items, ids.size(), pageable.getPageNumber(), pageable.getPageSize(),
+                toFacetCounts(result.categories()), toFacetCounts(result.stock()), toFacetCounts(result.prices()));
+    }
+    
+    private static List<FacetCount> toFacetCounts(List<ProductFacetIndex.FacetCount> counts) {
+        return counts.stream()
+                .map(count -> new FacetCount(count.value(), count.label(), count.count()))
+                .toList();
+    }
+    
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        return searchIndex.suggest(prefix, limit).stream()
+                .map(entry -> new SuggestionResponse(entry.label(), entry.type(), entry.id()))
+                .toList();
+    }
+    
+    // Journal écrit dans la transaction ; index et cache suivent la validation
+    @Transactional
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        product.setArchived(false);
+        Product saved = productRepository.save(product);
+        catalogChangeService.record(CatalogChange.Type.PRODUCT, saved.getId(), CatalogChange.Operation.UPSERT);
+        AfterCommit.run(() -> {
+            searchIndex.index(saved);
+            facetIndex.index(saved);
+            inventoryIndex.index(saved);
+            catalogCache.productChanged(saved.getId());
+        });
+        return saved;
     }
     
+    @Transactional
     public Product updateProduct(Long id, Product productDetails) {
-        Product product = getProductById(id);
+        Product product = loadProduct(id);
+        Integer previousStock = product.getStock();
         
         product.setNom(productDetails.getNom());
         product.setDescription(productDetails.getDescription());
@@ -49,26 +219,158 @@ public class ProductService {
             product.setCategory(productDetails.getCategory());
         }
         
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        catalogChangeService.record(CatalogChange.Type.PRODUCT, id, CatalogChange.Operation.UPSERT);
+        AfterCommit.run(() -> {
+            searchIndex.index(saved);
+            facetIndex.index(saved);
+            inventoryIndex.index(saved);
+            catalogCache.productChanged(id);
+            notifyIfRestocked(id, previousStock, saved.getStock());
+        });
+        return saved;
     }
     
+    // Suppression logique en une instruction : les commandes passées gardent le produit,
+    // ses lignes de panier sont purgées en arrière-plan (ArchivedProductPurgeService).
+    // Le journal est écrit dans la transaction ; index, cache et popularité suivent la validation
+    @Transactional
     public void deleteProduct(Long id) {
-        Product product = getProductById(id);
-        productRepository.delete(product);
+        if (productRepository.archive(id, LocalDateTime.now()) == 0) {
+            throw new ResourceNotFoundException("Produit non trouvé avec l'ID: " + id);
+        }
+        catalogChangeService.record(CatalogChange.Type.PRODUCT, id, CatalogChange.Operation.DELETE);
+        AfterCommit.run(() -> {
+            searchIndex.remove(id);
+            facetIndex.remove(id);
+            inventoryIndex.remove(id);
+            catalogCache.productChanged(id);
+            popularityTracker.remove(id);
+        });
     }
     
+    @Transactional
     public void updateStock(Long productId, Integer newStock) {
-        Product product = getProductById(productId);
+        Product product = loadProduct(productId);
+        Integer previousStock = product.getStock();
         product.setStock(newStock);
-        productRepository.save(product);
+        Product saved = productRepository.save(product);
+        catalogChangeService.record(CatalogChange.Type.PRODUCT, productId, CatalogChange.Operation.UPSERT);
+        AfterCommit.run(() -> {
+            facetIndex.index(saved);
+            inventoryIndex.index(saved);
+            catalogCache.productChanged(productId);
+            notifyIfRestocked(productId, previousStock, newStock);
+        });
+    }
+    
+    // Passage de la rupture à un stock positif : les abonnés sont prévenus en arrière-plan
+    private void notifyIfRestocked(Long productId, Integer previousStock, Integer newStock) {
+        boolean wasOut = previousStock == null || previousStock <= 0;
+        if (wasOut && newStock != null && newStock > 0) {
+            stockAlertService.restocked(productId);
+        }
     }
     
     // Méthodes pour filtrer par catégorie
-    public List<Product> getProductsByCategory(Long categoryId) {
-        return productRepository.findByCategoryId(categoryId);
+    public List<ProductListItem> getProductsByCategory(Long categoryId) {
+        return catalogCache.getListing("category:" + categoryId,
+                () -> List.copyOf(productRepository.findListItemsByCategoryId(categoryId)));
+    }
+    
+    public List<ProductListItem> getAvailableProductsByCategory(Long categoryId) {
+        return catalogCache.getListing("category:" + categoryId + ":available",
+                () -> List.copyOf(productRepository.findAvailableListItemsByCategoryId(categoryId)));
     }
     
-    public List<Product> getAvailableProductsByCategory(Long categoryId) {
-        return productRepository.findAvailableProductsByCategory(categoryId);
+    // Catégorie et toutes ses sous-catégories : une requête sur le préfixe du chemin matérialisé
+    public List<ProductListItem> getProductsByCategoryTree(Long categoryId, boolean availableOnly) {
+        return catalogCache.getListing("category-tree:" + categoryId + ":" + availableOnly, () -> {
+            Category category = categoryRepository.findById(categoryId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Catégorie non trouvée avec l'id: " + categoryId));
+            String chemin = category.getChemin() != null ? category.getChemin() : "/" + categoryId + "/";
+            return List.copyOf(availableOnly
+                    ? productRepository.findAvailableListItemsByCategoryPath(chemin)
+                    : productRepository.findListItemsByCategoryPath(chemin));
+        });
+    }
+    
+    // Catalogue paginé par curseur (keyset), mis en cache par combinaison de paramètres
+    public CursorPageResponse<ProductListItem> getProductPage(Long categoryId, boolean availableOnly, ProductSort sort,
+                                                      Sort.Direction direction, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        String key = "page:" + categoryId + ":" + availableOnly + ":" + sort + ":" + direction + ":" + cursor + ":" + pageSize;
+        return catalogCache.getListing(key, () -> loadProductPage(categoryId, availableOnly, sort, direction, cursor, pageSize));
+    }
+    
+    // Parcours keyset sur les seules clés de tri, puis chargement des cartes de la page par id
+    private CursorPageResponse<ProductListItem> loadProductPage(Long categoryId, boolean availableOnly, ProductSort sort,
+                                                        Sort.Direction direction, String cursor, int pageSize) {
+        Sort order = sort.toSort(direction);
+        ScrollPosition position = decodeCursor(cursor, sort, direction);
+        Limit max = Limit.of(pageSize);
+        
+        Window<ProductKey> window;
+        if (categoryId != null && availableOnly) {
+            window = productRepository.findKeysByArchivedFalseAndCategoryIdAndStockGreaterThan(categoryId, 0, position, order, max);
+        } else if (categoryId != null) {
+            window = productRepository.findKeysByArchivedFalseAndCategoryId(categoryId, position, order, max);
+        } else if (availableOnly) {
+            window = productRepository.findKeysByArchivedFalseAndStockGreaterThan(0, position, order, max);
+        } else {
+            window = productRepository.findKeysByArchivedFalse(position, order, max);
+        }
+        
+        List<ProductKey> keys = window.getContent();
+        List<ProductListItem> items = findAllInOrder(keys.stream().map(ProductKey::getId).toList());
+        String nextCursor = window.hasNext() && !keys.isEmpty()
+                ? encodeCursor(keys.get(keys.size() - 1), sort, direction)
+                : null;
+        return new CursorPageResponse<>(items, nextCursor, window.hasNext());
+    }
+    
+    // Le curseur est opaque pour le client : base64url("tri:sens:id:valeur de tri").
+    // Il n'est valable que pour le tri et le sens qui l'ont produit
+    static String encodeCursor(ProductKey last, ProductSort sort, Sort.Direction direction) {
+        String value = switch (sort) {
+            case PRICE -> last.getPrix().toPlainString();
+            case NAME -> last.getNom();
+            default -> "";
+        };
+        String raw = sort + ":" + direction + ":" + last.getId() + ":" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    static ScrollPosition decodeCursor(String cursor, ProductSort sort, Sort.Direction direction) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 4);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Curseur de pagination invalide");
+        }
+        if (parts.length < 4) {
+            throw new BadRequestException("Curseur de pagination invalide");
+        }
+        if (!parts[0].equals(sort.name()) || !parts[1].equals(direction.name())) {
+            throw new BadRequestException("Curseur de pagination obtenu avec un autre tri ou un autre sens");
+        }
+        try {
+            Long id = Long.valueOf(parts[2]);
+            String value = parts[3];
+            
+            Map<String, Object> keys = new LinkedHashMap<>();
+            switch (sort) {
+                case PRICE -> keys.put("prix", new BigDecimal(value));
+                case NAME -> keys.put("nom", value);
+                default -> { }
+            }
+            keys.put("id", id);
+            return ScrollPosition.forward(keys);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Curseur de pagination invalide");
+        }
     }
 }
\ No newline at end of file
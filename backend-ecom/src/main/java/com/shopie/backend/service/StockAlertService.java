@@ -0,0 +1,248 @@
+package com.shopie.backend.service;
+
+import com.shopie.backend.dto.StockAlertRecipient;
+import com.shopie.backend.exception.BadRequestException;
+import com.shopie.backend.exception.ResourceNotFoundException;
+import com.shopie.backend.model.Product;
+import com.shopie.backend.model.StockSubscription;
+import com.shopie.backend.model.User;
+import com.shopie.backend.repository.ProductRepository;
+import com.shopie.backend.repository.StockSubscriptionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Alertes de retour en stock.
+ * Quand un produit repasse de 0 à un stock positif, il est seulement marqué dans un ensemble
+ * de produits en attente, borné à {@code max-pending} ; la requête admin n'attend rien. Une tâche
+ * planifiée vide cet ensemble vers un pool de {@code workers} threads dont la file est bornée à
+ * {@code queue-capacity} tâches : au-delà, les produits restent en attente jusqu'au passage suivant.
+ * Un produit n'est jamais traité par deux tâches à la fois ; un réapprovisionnement arrivé pendant
+ * son traitement le remet en attente et il est retraité ensuite. Si l'ensemble est plein,
+ * le produit n'est pas perdu : le passage suivant retrouve en base tous les produits en stock
+ * ayant encore des abonnés. La tâche parcourt les abonnés par clé en lots de {@code chunk-size},
+ * les transmet au {@link StockNotificationSink} configuré puis supprime les abonnements prévenus.
+ */
+@Service
+public class StockAlertService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(StockAlertService.class);
+    
+    @Autowired
+    private StockSubscriptionRepository subscriptionRepository;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private StockNotificationSink sink;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${app.stock-alerts.workers:2}")
+    private int workers;
+    
+    @Value("${app.stock-alerts.chunk-size:500}")
+    private int chunkSize;
+    
+    @Value("${app.stock-alerts.queue-capacity:100}")
+    private int queueCapacity;
+    
+    @Value("${app.stock-alerts.max-pending:10000}")
+    private int maxPending;
+    
+    private ThreadPoolExecutor executor;
+    
+    // Produits à traiter (un réapprovisionnement répété ne les ajoute qu'une fois)
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    // Produits en cours de traitement par un worker
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+    // Ensemble plein : le prochain passage rattrape en base les produits écartés
+    private final AtomicBoolean overflow = new AtomicBoolean(false);
+    
+    private final AtomicLong restocks = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong overflows = new AtomicLong();
+    private final AtomicLong notified = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+    
+    @PostConstruct
+    void init() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "stock-alerts-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+    
+    public void subscribe(User user, Long productId) {
+        Product product = productRepository.findByIdAndArchivedFalse(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Produit non trouvé avec l'ID: " + productId));
+        if (product.getStock() != null && product.getStock() > 0) {
+            throw new BadRequestException("Ce produit est en stock");
+        }
+        if (subscriptionRepository.existsByUserIdAndProductId(user.getId(), productId)) {
+            return;
+        }
+        StockSubscription subscription = new StockSubscription();
+        subscription.setUser(user);
+        subscription.setProduct(product);
+        try {
+            subscriptionRepository.save(subscription);
+        } catch (DataIntegrityViolationException e) {
+            // Abonnement concurrent déjà enregistré (contrainte unique) : rien à faire
+        }
+    }
+    
+    public void unsubscribe(User user, Long productId) {
+        transactionTemplate.execute(status -> subscriptionRepository.deleteByUserIdAndProductId(user.getId(), productId));
+    }
+    
+    public List<Long> getSubscribedProductIds(User user) {
+        return subscriptionRepository.findProductIdsByUserId(user.getId());
+    }
+    
+    // Appelé après l'enregistrement du stock ; ne bloque jamais l'appelant
+    public void restocked(Long productId) {
+        restocks.incrementAndGet();
+        if (pending.contains(productId)) {
+            coalesced.incrementAndGet();
+            return;
+        }
+        if (pending.size() >= maxPending) {
+            overflows.incrementAndGet();
+            overflow.set(true);
+            return;
+        }
+        if (!pending.add(productId)) {
+            coalesced.incrementAndGet();
+        }
+    }
+    
+    // Un seul thread de planification : les places libres de la file ne peuvent pas être prises entre-temps
+    @Scheduled(initialDelayString = "${app.stock-alerts.dispatch-interval-ms:1000}",
+               fixedDelayString = "${app.stock-alerts.dispatch-interval-ms:1000}")
+    public void dispatch() {
+        if (overflow.compareAndSet(true, false)) {
+            recoverOverflow();
+        }
+        for (Long productId : pending) {
+            if (executor.getQueue().remainingCapacity() == 0) {
+                break;
+            }
+            // Déjà en cours : reste en attente et sera retraité une fois la tâche terminée
+            if (!running.add(productId)) {
+                continue;
+            }
+            pending.remove(productId);
+            try {
+                executor.execute(() -> {
+                    try {
+                        notifySubscribers(productId);
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                        logger.warn("Alertes de retour en stock interrompues pour le produit {}", productId, e);
+                    } finally {
+                        running.remove(productId);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                running.remove(productId);
+                pending.add(productId);
+                break;
+            }
+        }
+    }
+    
+    // Produits en stock avec abonnés, ajoutés jusqu'à remplir l'ensemble ; le reste attend le passage suivant
+    private void recoverOverflow() {
+        long afterId = 0L;
+        while (pending.size() < maxPending) {
+            List<Long> ids = subscriptionRepository.findProductIdsInStock(afterId, PageRequest.of(0, chunkSize));
+            for (Long id : ids) {
+                if (pending.size() >= maxPending) {
+                    overflow.set(true);
+                    return;
+                }
+                pending.add(id);
+            }
+            if (ids.size() < chunkSize) {
+                return;
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+        overflow.set(true);
+    }
+    
+    private void notifySubscribers(Long productId) {
+        lastRunAt = LocalDateTime.now();
+        Product product = productRepository.findByIdAndArchivedFalse(productId).orElse(null);
+        // Produit supprimé ou de nouveau épuisé entre-temps : les abonnements attendent le prochain retour
+        if (product == null || product.getStock() == null || product.getStock() <= 0) {
+            return;
+        }
+        long afterId = 0L;
+        while (true) {
+            List<StockAlertRecipient> recipients = subscriptionRepository.findRecipients(
+                    productId, afterId, PageRequest.of(0, chunkSize));
+            if (recipients.isEmpty()) {
+                break;
+            }
+            sink.send(product, recipients);
+            List<Long> ids = recipients.stream().map(StockAlertRecipient::getSubscriptionId).toList();
+            transactionTemplate.execute(status -> subscriptionRepository.deleteByIdIn(ids));
+            notified.addAndGet(ids.size());
+            afterId = ids.get(ids.size() - 1);
+            if (recipients.size() < chunkSize) {
+                break;
+            }
+        }
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("sink", sink.getClass().getSimpleName());
+        stats.put("pending", pending.size());
+        stats.put("running", running.size());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("restocks", restocks.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("overflows", overflows.get());
+        stats.put("notified", notified.get());
+        stats.put("failures", failures.get());
+        stats.put("lastRunAt", lastRunAt);
+        return stats;
+    }
+}
@@ -0,0 +1,16 @@
+package com.shopie.backend.service;
+
+import com.shopie.backend.dto.StockAlertRecipient;
+import com.shopie.backend.model.Product;
+
+import java.util.List;
+
+/**
+ * Destination des alertes de retour en stock (journal, fichier, e-mail, push...).
+ * Appelée depuis le pipeline de notification, jamais depuis la requête qui modifie le stock ;
+ * une exception laisse les abonnements du lot en place pour le prochain réapprovisionnement.
+ */
+public interface StockNotificationSink {
+    
+    void send(Product product, List<StockAlertRecipient> recipients);
+}
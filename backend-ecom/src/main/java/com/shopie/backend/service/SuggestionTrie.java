@@ -0,0 +1,127 @@
+package com.shopie.backend.service;
+
+import java.util.*;
+
+/**
+ * Trie de préfixes pour l'autocomplétion. Chaque nœud conserve les {@code k} meilleures
+ * complétions (par poids décroissant) de son sous-arbre : une requête se limite à descendre
+ * le long du préfixe et à lire la liste du nœud atteint.
+ * Une entrée est enregistrée sous plusieurs chemins (un par début de mot de son libellé).
+ * Pas thread-safe : l'appelant gère la synchronisation.
+ */
+public final class SuggestionTrie {
+    
+    public record Entry(String key, String label, String type, Long id, long weight) {
+    }
+    
+    private static final Comparator<Entry> BY_WEIGHT = Comparator.comparingLong(Entry::weight).reversed()
+            .thenComparing(Entry::label)
+            .thenComparing(Entry::key);
+    
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final Map<String, Entry> terminals = new HashMap<>();
+        private List<Entry> top = List.of();
+    }
+    
+    private final int k;
+    private final Node root = new Node();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, List<String>> pathsByKey = new HashMap<>();
+    
+    public SuggestionTrie(int k) {
+        this.k = k;
+    }
+    
+    public void put(Entry entry, Collection<String> paths) {
+        remove(entry.key());
+        entries.put(entry.key(), entry);
+        pathsByKey.put(entry.key(), List.copyOf(paths));
+        for (String path : paths) {
+            Node node = root;
+            offer(node, entry);
+            for (int i = 0; i < path.length(); i++) {
+                node = node.children.computeIfAbsent(path.charAt(i), c -> new Node());
+                offer(node, entry);
+            }
+            node.terminals.put(entry.key(), entry);
+        }
+    }
+    
+    public void remove(String key) {
+        Entry entry = entries.remove(key);
+        List<String> paths = pathsByKey.remove(key);
+        if (entry == null || paths == null) {
+            return;
+        }
+        for (String path : paths) {
+            Deque<Node> stack = new ArrayDeque<>();
+            Node node = root;
+            stack.push(node);
+            for (int i = 0; i < path.length() && node != null; i++) {
+                node = node.children.get(path.charAt(i));
+                if (node != null) {
+                    stack.push(node);
+                }
+            }
+            if (node == null) {
+                continue;
+            }
+            node.terminals.remove(key);
+            
+            // Recalcule les top-k du plus profond vers la racine et élague les nœuds vides
+            Node child = null;
+            for (int depth = stack.size() - 1; !stack.isEmpty(); depth--) {
+                Node current = stack.pop();
+                if (child != null && child.terminals.isEmpty() && child.children.isEmpty()) {
+                    current.children.remove(path.charAt(depth));
+                }
+                if (current.top.stream().anyMatch(e -> e.key().equals(key))) {
+                    recompute(current);
+                }
+                child = current;
+            }
+        }
+    }
+    
+    public Entry get(String key) {
+        return entries.get(key);
+    }
+    
+    public void clear() {
+        root.children.clear();
+        root.terminals.clear();
+        root.top = List.of();
+        entries.clear();
+        pathsByKey.clear();
+    }
+    
+    public List<Entry> complete(String prefix, int limit) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        return node.top.size() <= limit ? node.top : node.top.subList(0, limit);
+    }
+    
+    private void offer(Node node, Entry entry) {
+        List<Entry> top = new ArrayList<>(node.top);
+        top.removeIf(e -> e.key().equals(entry.key()));
+        top.add(entry);
+        top.sort(BY_WEIGHT);
+        node.top = List.copyOf(top.size() > k ? top.subList(0, k) : top);
+    }
+    
+    private void recompute(Node node) {
+        Map<String, Entry> candidates = new HashMap<>(node.terminals);
+        for (Node child : node.children.values()) {
+            child.top.forEach(e -> candidates.put(e.key(), e));
+        }
+        List<Entry> top = new ArrayList<>(candidates.values());
+        top.sort(BY_WEIGHT);
+        node.top = List.copyOf(top.size() > k ? top.subList(0, k) : top);
+    }
+}
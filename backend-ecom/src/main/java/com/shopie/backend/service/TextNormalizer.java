@@ -0,0 +1,45 @@
+package com.shopie.backend.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalisation du texte pour la recherche : minuscules, accents supprimés
+ * ("Éléphant" → "elephant") et découpage en mots.
+ */
+public final class TextNormalizer {
+    
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+    
+    private static final Set<String> STOP_WORDS = Set.of(
+            "le", "la", "les", "de", "des", "du", "un", "une", "et", "ou",
+            "en", "au", "aux", "pour", "par", "avec", "sans", "sur", "dans");
+    
+    private TextNormalizer() {
+    }
+    
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT)
+                .replace("œ", "oe")
+                .replace("æ", "ae");
+        return DIACRITICS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+    }
+    
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(fold(text))) {
+            if (token.length() >= 2 && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
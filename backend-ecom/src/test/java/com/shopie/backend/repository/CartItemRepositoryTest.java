@@ -0,0 +1,206 @@
+package com.shopie.backend.repository;
+
+import com.shopie.backend.model.CartItem;
+import com.shopie.backend.model.Product;
+import com.shopie.backend.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(UpsertDialect.class)
+class CartItemRepositoryTest {
+    
+    @Autowired
+    private CartItemRepository cartItemRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private User user(String email) {
+        User user = new User();
+        user.setNom("Client");
+        user.setEmail(email);
+        user.setMotDePasse("secret");
+        return userRepository.save(user);
+    }
+    
+    private Product product(String nom) {
+        Product product = new Product();
+        product.setNom(nom);
+        product.setPrix(new BigDecimal("10.00"));
+        product.setStock(5);
+        return productRepository.save(product);
+    }
+    
+    @Test
+    void upsertInsertsThenAddsToExistingLine() {
+        User user = user("upsert@shopie.fr");
+        Product product = product("Chemise");
+        
+        cartItemRepository.upsertQuantity(user.getId(), product.getId(), 2);
+        cartItemRepository.upsertQuantity(user.getId(), product.getId(), 3);
+        
+        List<CartItem> items = cartItemRepository.findAll();
+        assertThat(items).hasSize(1);
+        assertThat(items.get(0).getQuantite()).isEqualTo(5);
+        assertThat(items.get(0).getDerniereActivite()).isNotNull();
+    }
+    
+    @Test
+    void upsertKeepsOneLinePerUserAndProduct() {
+        User user = user("lignes@shopie.fr");
+        User other = user("autre@shopie.fr");
+        Product first = product("Robe");
+        Product second = product("Jupe");
+        
+        cartItemRepository.upsertQuantity(user.getId(), first.getId(), 1);
+        cartItemRepository.upsertQuantity(user.getId(), second.getId(), 1);
+        cartItemRepository.upsertQuantity(other.getId(), first.getId(), 4);
+        
+        assertThat(cartItemRepository.count()).isEqualTo(3);
+    }
+    
+    private void setActivity(User user, LocalDateTime date) {
+        entityManager.createNativeQuery("UPDATE cart_items SET derniere_activite = ?1 WHERE user_id = ?2")
+                .setParameter(1, date)
+                .setParameter(2, user.getId())
+                .executeUpdate();
+    }
+    
+    private long lines(User user) {
+        return cartItemRepository.findByUser(user).size();
+    }
+    
+    @Test
+    void idleCartsAreScannedByUserIdWithTheirLineCount() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(30);
+        User idle = user("idle@shopie.fr");
+        User active = user("active@shopie.fr");
+        User otherIdle = user("idle2@shopie.fr");
+        Product first = product("Robe");
+        Product second = product("Jupe");
+        cartItemRepository.upsertQuantity(idle.getId(), first.getId(), 1);
+        cartItemRepository.upsertQuantity(idle.getId(), second.getId(), 2);
+        cartItemRepository.upsertQuantity(active.getId(), first.getId(), 1);
+        cartItemRepository.upsertQuantity(active.getId(), second.getId(), 1);
+        cartItemRepository.upsertQuantity(otherIdle.getId(), first.getId(), 1);
+        setActivity(idle, cutoff.minusDays(1));
+        setActivity(otherIdle, cutoff.minusDays(5));
+        // Une seule ligne récente suffit à garder le panier actif
+        setActivity(active, cutoff.minusDays(1));
+        entityManager.createNativeQuery("UPDATE cart_items SET derniere_activite = ?1 WHERE user_id = ?2 AND product_id = ?3")
+                .setParameter(1, LocalDateTime.now())
+                .setParameter(2, active.getId())
+                .setParameter(3, second.getId())
+                .executeUpdate();
+        
+        List<IdleCart> page = cartItemRepository.findIdleCarts(0L, cutoff, PageRequest.of(0, 1));
+        assertThat(page).extracting(IdleCart::getUserId).containsExactly(idle.getId());
+        assertThat(page.get(0).getLignes()).isEqualTo(2);
+        
+        List<IdleCart> next = cartItemRepository.findIdleCarts(idle.getId(), cutoff, PageRequest.of(0, 10));
+        assertThat(next).extracting(IdleCart::getUserId).containsExactly(otherIdle.getId());
+    }
+    
+    @Test
+    void purgeSparesCartsThatBecameActiveAfterTheScan() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(30);
+        User returning = user("retour@shopie.fr");
+        User idle = user("oubli@shopie.fr");
+        Product first = product("Pull");
+        Product second = product("Gilet");
+        cartItemRepository.upsertQuantity(returning.getId(), first.getId(), 1);
+        cartItemRepository.upsertQuantity(idle.getId(), first.getId(), 1);
+        setActivity(returning, cutoff.minusDays(10));
+        setActivity(idle, cutoff.minusDays(10));
+        List<Long> scanned = cartItemRepository.findIdleCarts(0L, cutoff, PageRequest.of(0, 10)).stream()
+                .map(IdleCart::getUserId)
+                .toList();
+        assertThat(scanned).containsExactly(returning.getId(), idle.getId());
+        
+        // Le client revient entre le parcours et la suppression
+        cartItemRepository.upsertQuantity(returning.getId(), second.getId(), 1);
+        int deleted = cartItemRepository.deleteIdleByUserIds(scanned, cutoff);
+        
+        assertThat(deleted).isEqualTo(1);
+        assertThat(lines(returning)).isEqualTo(2);
+        assertThat(lines(idle)).isZero();
+    }
+    
+    // Hors de la transaction du test : chaque thread valide sa propre instruction
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void concurrentUpsertsSumIntoOneLine() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        User user = transaction.execute(status -> user("concurrent@shopie.fr"));
+        Product product = transaction.execute(status -> product("Pull"));
+        int threads = 2;
+        int rounds = 50;
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<CompletableFuture<Void>> tasks = IntStream.range(0, threads)
+                    .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                        for (int round = 0; round < rounds; round++) {
+                            await(barrier);
+                            transaction.executeWithoutResult(status ->
+                                    cartItemRepository.upsertQuantity(user.getId(), product.getId(), 1));
+                        }
+                    }, executor))
+                    .toList();
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+        }
+        
+        List<CartItem> items = cartItemRepository.findAll();
+        assertThat(items).hasSize(1);
+        assertThat(items.get(0).getQuantite()).isEqualTo(threads * rounds);
+    }
+    
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    // Le test concurrent valide ses écritures : la base embarquée est partagée par le contexte
+    @AfterEach
+    void cleanUp() {
+        cartItemRepository.deleteAllInBatch();
+        productRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+}
@@ -0,0 +1,76 @@
+package com.shopie.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvRecordReaderTest {
+    
+    private static CsvRecordReader reader(String csv) {
+        return new CsvRecordReader(new StringReader(csv));
+    }
+    
+    @Test
+    void readsQuotedFieldsWithSeparatorsAndDoubledQuotes() throws IOException {
+        CsvRecordReader csv = reader("nom,description,prix\n"
+                + "\"Chemise, lin\",\"Taille \"\"M\"\"\",19.90\n");
+        
+        assertThat(csv.readHeader()).containsExactly("nom", "description", "prix");
+        assertThat(csv.readRecord()).containsExactly("Chemise, lin", "Taille \"M\"", "19.90");
+        assertThat(csv.readRecord()).isNull();
+    }
+    
+    @Test
+    void keepsLineBreaksInsideQuotesAndTracksRecordLines() throws IOException {
+        CsvRecordReader csv = reader("nom,description\n"
+                + "Robe,\"ligne 1\nligne 2\"\n"
+                + "Jupe,courte\n");
+        
+        csv.readHeader();
+        assertThat(csv.getRecordLine()).isEqualTo(1);
+        assertThat(csv.readRecord()).containsExactly("Robe", "ligne 1\nligne 2");
+        assertThat(csv.getRecordLine()).isEqualTo(2);
+        assertThat(csv.readRecord()).containsExactly("Jupe", "courte");
+        assertThat(csv.getRecordLine()).isEqualTo(4);
+    }
+    
+    @Test
+    void detectsSemicolonSeparatorAndStripsBom() throws IOException {
+        CsvRecordReader csv = reader("\uFEFFnom;\"prix\";stock\r\n"
+                + "Pull;24,50;3\r\n");
+        
+        assertThat(csv.readHeader()).containsExactly("nom", "prix", "stock");
+        assertThat(csv.readRecord()).containsExactly("Pull", "24,50", "3");
+    }
+    
+    @Test
+    void skipsBlankLinesAndKeepsEmptyFields() throws IOException {
+        CsvRecordReader csv = reader("a,b,c\n"
+                + "\n"
+                + "\r\n"
+                + "1,,\n"
+                + "\"\",2,3");
+        
+        csv.readHeader();
+        assertThat(csv.readRecord()).containsExactly("1", "", "");
+        assertThat(csv.getRecordLine()).isEqualTo(4);
+        assertThat(csv.readRecord()).containsExactly("", "2", "3");
+        assertThat(csv.readRecord()).isNull();
+    }
+    
+    @Test
+    void quotedFieldMayContainCarriageReturnsAndSeparators() throws IOException {
+        CsvRecordReader csv = reader("a;b\n\"x;y\r\nz\";\"\"\"\"\n");
+        
+        csv.readHeader();
+        assertThat(csv.readRecord()).containsExactly("x;y\r\nz", "\"");
+    }
+    
+    @Test
+    void emptyInputHasNoHeader() throws IOException {
+        assertThat(reader("").readHeader()).isNull();
+    }
+}
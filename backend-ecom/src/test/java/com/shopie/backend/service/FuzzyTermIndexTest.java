@@ -0,0 +1,85 @@
+package com.shopie.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FuzzyTermIndexTest {
+    
+    @Test
+    void findsTermsWithinEditDistance() {
+        FuzzyTermIndex index = new FuzzyTermIndex(2);
+        index.add("chaussure");
+        index.add("chemise");
+        
+        assertThat(index.lookup("chausure", 2)).isEqualTo(Map.of("chaussure", 1));
+        assertThat(index.lookup("chasusure", 2)).isEqualTo(Map.of("chaussure", 1));
+        assertThat(index.lookup("chausure", 0)).isEmpty();
+        assertThat(index.lookup("pantalon", 2)).isEmpty();
+    }
+    
+    @Test
+    void termStaysIndexedUntilLastDocumentIsRemoved() {
+        FuzzyTermIndex index = new FuzzyTermIndex(2);
+        index.add("chaussure");
+        index.add("chaussure");
+        
+        index.remove("chaussure");
+        assertThat(index.lookup("chausure", 2)).containsOnlyKeys("chaussure");
+        
+        index.remove("chaussure");
+        assertThat(index.lookup("chausure", 2)).isEmpty();
+        assertThat(index.lookup("chaussure", 0)).isEmpty();
+    }
+    
+    @Test
+    void removingOneTermKeepsSharedVariantsOfOthers() {
+        FuzzyTermIndex index = new FuzzyTermIndex(2);
+        index.add("chat");
+        index.add("chats");
+        
+        index.remove("chats");
+        
+        assertThat(index.lookup("cht", 2)).isEqualTo(Map.of("chat", 1));
+        assertThat(index.lookup("chats", 0)).isEmpty();
+    }
+    
+    @Test
+    void removingUnknownTermIsIgnored() {
+        FuzzyTermIndex index = new FuzzyTermIndex(2);
+        index.add("chat");
+        
+        index.remove("chien");
+        index.remove("chien");
+        
+        assertThat(index.lookup("chat", 0)).isEqualTo(Map.of("chat", 0));
+    }
+    
+    @Test
+    void readdingAfterRemovalRestoresTerm() {
+        FuzzyTermIndex index = new FuzzyTermIndex(2);
+        index.add("robe");
+        index.remove("robe");
+        index.add("robe");
+        
+        assertThat(index.lookup("rbe", 1)).isEqualTo(Map.of("robe", 1));
+    }
+    
+    @Test
+    void lookupIsCappedByIndexDistance() {
+        FuzzyTermIndex index = new FuzzyTermIndex(1);
+        index.add("chaussure");
+        
+        assertThat(index.lookup("chausre", 2)).isEmpty();
+        assertThat(index.lookup("chausure", 2)).containsOnlyKeys("chaussure");
+    }
+    
+    @Test
+    void distanceCountsAdjacentTranspositionAsOneEdit() {
+        assertThat(FuzzyTermIndex.distance("chat", "chta")).isEqualTo(1);
+        assertThat(FuzzyTermIndex.distance("chat", "chien")).isEqualTo(3);
+        assertThat(FuzzyTermIndex.distance("", "abc")).isEqualTo(3);
+    }
+}
@@ -0,0 +1,103 @@
+package com.shopie.backend.service;
+
+import com.shopie.backend.dto.ProductSort;
+import com.shopie.backend.exception.BadRequestException;
+import com.shopie.backend.repository.ProductKey;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.data.domain.Sort.Direction.ASC;
+import static org.springframework.data.domain.Sort.Direction.DESC;
+
+class ProductCursorTest {
+    
+    private record Key(Long getId, BigDecimal getPrix, String getNom) implements ProductKey {
+    }
+    
+    private static KeysetScrollPosition roundTrip(ProductKey key, ProductSort sort, Sort.Direction direction) {
+        String cursor = ProductService.encodeCursor(key, sort, direction);
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+        return (KeysetScrollPosition) ProductService.decodeCursor(cursor, sort, direction);
+    }
+    
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    void idCursorCarriesOnlyTheId() {
+        KeysetScrollPosition position = roundTrip(new Key(42L, new BigDecimal("9.99"), "Robe"), ProductSort.ID, ASC);
+        
+        assertThat(position.getKeys()).isEqualTo(Map.of("id", 42L));
+        assertThat(position.scrollsForward()).isTrue();
+    }
+    
+    @Test
+    void priceCursorKeepsExactDecimal() {
+        KeysetScrollPosition position = roundTrip(new Key(7L, new BigDecimal("1234.50"), "Pull"), ProductSort.PRICE, DESC);
+        
+        assertThat(position.getKeys()).containsExactly(
+                Map.entry("prix", new BigDecimal("1234.50")), Map.entry("id", 7L));
+    }
+    
+    @Test
+    void nameCursorSurvivesSeparatorsAndAccents() {
+        KeysetScrollPosition position = roundTrip(new Key(3L, BigDecimal.ONE, "Été : robe/jupe+ 100%"), ProductSort.NAME, ASC);
+        
+        assertThat(position.getKeys()).containsExactly(
+                Map.entry("nom", "Été : robe/jupe+ 100%"), Map.entry("id", 3L));
+    }
+    
+    @Test
+    void blankCursorStartsFromTheBeginning() {
+        assertThat(ProductService.decodeCursor(null, ProductSort.PRICE, ASC).isInitial()).isTrue();
+        assertThat(ProductService.decodeCursor("  ", ProductSort.NAME, DESC).isInitial()).isTrue();
+    }
+    
+    @Test
+    void cursorIsRejectedForAnotherDirection() {
+        String cursor = ProductService.encodeCursor(new Key(7L, new BigDecimal("12.00"), "Pull"), ProductSort.PRICE, ASC);
+        
+        assertThatThrownBy(() -> ProductService.decodeCursor(cursor, ProductSort.PRICE, DESC))
+                .isInstanceOf(BadRequestException.class);
+    }
+    
+    @Test
+    void cursorIsRejectedForAnotherSort() {
+        // Un nom numérique serait sinon accepté comme prix
+        String cursor = ProductService.encodeCursor(new Key(7L, new BigDecimal("12.00"), "2024"), ProductSort.NAME, ASC);
+        
+        assertThatThrownBy(() -> ProductService.decodeCursor(cursor, ProductSort.PRICE, ASC))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> ProductService.decodeCursor(cursor, ProductSort.ID, ASC))
+                .isInstanceOf(BadRequestException.class);
+    }
+    
+    @Test
+    void malformedCursorIsRejected() {
+        String[] cursors = {"not base64!", encode("42"), encode("PRICE:ASC:42"), encode("PRICE:ASC:abc:1"),
+                encode("PRICE:ASC:5:cher"), encode("42:12.00")};
+        for (String cursor : cursors) {
+            assertThatThrownBy(() -> ProductService.decodeCursor(cursor, ProductSort.PRICE, ASC))
+                    .as(cursor)
+                    .isInstanceOf(BadRequestException.class);
+        }
+    }
+    
+    @Test
+    void decodedPositionIsKeyset() {
+        ScrollPosition position = ProductService.decodeCursor(encode("NEWEST:DESC:10:"), ProductSort.NEWEST, DESC);
+        
+        assertThat(position).isInstanceOf(KeysetScrollPosition.class);
+        assertThat(((KeysetScrollPosition) position).getKeys()).isEqualTo(Map.of("id", 10L));
+    }
+}
@@ -0,0 +1,91 @@
+package com.shopie.backend.service;
+
+import com.shopie.backend.dto.CursorPageResponse;
+import com.shopie.backend.dto.ProductListItem;
+import com.shopie.backend.dto.ProductSort;
+import com.shopie.backend.model.Category;
+import com.shopie.backend.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductPageTest {
+    
+    @Autowired
+    private ProductService productService;
+    
+    @Autowired
+    private CategoryService categoryService;
+    
+    private Category category;
+    private final List<Product> products = new ArrayList<>();
+    
+    @BeforeEach
+    void createCatalog() {
+        category = new Category();
+        category.setNom("Pagination " + System.nanoTime());
+        category = categoryService.createCategory(category);
+        // Prix et noms en double : l'id départage les égalités d'une page à l'autre
+        String[][] rows = {{"Robe", "10.00"}, {"Jupe", "10.00"}, {"Robe", "5.00"}, {"Pull", "20.00"},
+                {"Jupe", "5.00"}, {"Robe", "20.00"}, {"Gilet", "10.00"}};
+        for (String[] row : rows) {
+            Product product = new Product();
+            product.setNom(row[0]);
+            product.setPrix(new BigDecimal(row[1]));
+            product.setStock(1);
+            product.setCategory(category);
+            products.add(productService.createProduct(product));
+        }
+    }
+    
+    private List<Long> pageThrough(ProductSort sort, Sort.Direction direction) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        for (int page = 0; page <= products.size(); page++) {
+            CursorPageResponse<ProductListItem> response =
+                    productService.getProductPage(category.getId(), false, sort, direction, cursor, 2);
+            response.getItems().forEach(item -> ids.add(item.getId()));
+            if (!response.isHasMore()) {
+                return ids;
+            }
+            cursor = response.getNextCursor();
+        }
+        throw new AssertionError("La pagination ne se termine pas");
+    }
+    
+    private List<Long> expected(ProductSort sort, Sort.Direction direction) {
+        Comparator<Product> byId = Comparator.comparing(Product::getId);
+        Comparator<Product> order = switch (sort) {
+            case PRICE -> Comparator.comparing(Product::getPrix).thenComparing(byId);
+            case NAME -> Comparator.comparing(Product::getNom).thenComparing(byId);
+            default -> byId;
+        };
+        if (sort == ProductSort.NEWEST || direction == Sort.Direction.DESC) {
+            order = order.reversed();
+        }
+        return products.stream().sorted(order).map(Product::getId).toList();
+    }
+    
+    @Test
+    void keysetPagesCoverTheCatalogOnceForEverySortAndDirection() {
+        for (ProductSort sort : ProductSort.values()) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                assertThat(pageThrough(sort, direction))
+                        .as(sort + " " + direction)
+                        .containsExactlyElementsOf(expected(sort, direction));
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.shopie.backend.service;
+
+import com.shopie.backend.service.SuggestionTrie.Entry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionTrieTest {
+    
+    private static Entry entry(String key, long weight) {
+        return new Entry(key, key, "product", null, weight);
+    }
+    
+    private static List<String> keys(List<Entry> entries) {
+        return entries.stream().map(Entry::key).toList();
+    }
+    
+    @Test
+    void completesByWeightWithinPrefix() {
+        SuggestionTrie trie = new SuggestionTrie(5);
+        trie.put(entry("chemise", 3), List.of("chemise"));
+        trie.put(entry("chaussure", 8), List.of("chaussure"));
+        trie.put(entry("robe", 10), List.of("robe"));
+        
+        assertThat(keys(trie.complete("ch", 10))).containsExactly("chaussure", "chemise");
+        assertThat(keys(trie.complete("", 2))).containsExactly("robe", "chaussure");
+        assertThat(trie.complete("x", 10)).isEmpty();
+    }
+    
+    @Test
+    void removalRefillsTopKFromSubtreesUpToRoot() {
+        SuggestionTrie trie = new SuggestionTrie(2);
+        trie.put(entry("abc", 10), List.of("abc"));
+        trie.put(entry("abd", 5), List.of("abd"));
+        trie.put(entry("abe", 3), List.of("abe"));
+        trie.put(entry("xyz", 1), List.of("xyz"));
+        assertThat(keys(trie.complete("", 10))).containsExactly("abc", "abd");
+        
+        trie.remove("abc");
+        
+        assertThat(keys(trie.complete("", 10))).containsExactly("abd", "abe");
+        assertThat(keys(trie.complete("ab", 10))).containsExactly("abd", "abe");
+        assertThat(trie.complete("abc", 10)).isEmpty();
+        assertThat(trie.get("abc")).isNull();
+    }
+    
+    @Test
+    void removalPrunesBranchButKeepsSiblings() {
+        SuggestionTrie trie = new SuggestionTrie(3);
+        trie.put(entry("ab", 2), List.of("ab"));
+        trie.put(entry("abcdef", 4), List.of("abcdef"));
+        
+        trie.remove("abcdef");
+        
+        assertThat(trie.complete("abc", 10)).isEmpty();
+        assertThat(keys(trie.complete("a", 10))).containsExactly("ab");
+        assertThat(keys(trie.complete("ab", 10))).containsExactly("ab");
+    }
+    
+    @Test
+    void entryRegisteredUnderSeveralPathsIsRemovedFromAll() {
+        SuggestionTrie trie = new SuggestionTrie(3);
+        trie.put(entry("chemise bleue", 5), List.of("chemise bleue", "bleue"));
+        trie.put(entry("blouse", 1), List.of("blouse"));
+        assertThat(keys(trie.complete("bl", 10))).containsExactly("chemise bleue", "blouse");
+        
+        trie.remove("chemise bleue");
+        
+        assertThat(keys(trie.complete("bl", 10))).containsExactly("blouse");
+        assertThat(trie.complete("ch", 10)).isEmpty();
+    }
+    
+    @Test
+    void putWithSameKeyReplacesWeightAndPaths() {
+        SuggestionTrie trie = new SuggestionTrie(3);
+        trie.put(entry("robe", 1), List.of("robe"));
+        trie.put(entry("rideau", 2), List.of("rideau"));
+        
+        trie.put(entry("robe", 9), List.of("robe longue"));
+        
+        assertThat(keys(trie.complete("r", 10))).containsExactly("robe", "rideau");
+        assertThat(trie.complete("robe l", 10)).hasSize(1);
+        assertThat(trie.get("robe").weight()).isEqualTo(9);
+    }
+    
+    @Test
+    void removingUnknownKeyIsIgnored() {
+        SuggestionTrie trie = new SuggestionTrie(3);
+        trie.put(entry("robe", 1), List.of("robe"));
+        
+        trie.remove("jupe");
+        
+        assertThat(keys(trie.complete("r", 10))).containsExactly("robe");
+    }
+}
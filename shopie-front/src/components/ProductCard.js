@@ -66,7 +66,7 @@ export default function ProductCard({ product, onPress }) {
           uri: product.imageUrl && product.imageUrl.startsWith('http') 
             ? product.imageUrl 
             : product.imageUrl 
-              ? `${API_CONFIG.BASE_URL}${product.imageUrl}`
+              ? `${API_CONFIG.BASE_URL}${product.imageUrl}?size=thumb`
               : 'https://via.placeholder.com/150x150?text=No+Image'
         }}
         style={styles.productImage}
@@ -85,7 +85,7 @@ export default function ProductCard({ product, onPress }) {
           {product.nom}
         </Text>
         <Text style={styles.productDescription} numberOfLines={2}>
-          {product.description}
+          {product.resume}
         </Text>
         <View style={styles.productFooter}>
           <Text style={styles.productPrice}>
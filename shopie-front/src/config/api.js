@@ -20,7 +20,12 @@ export const API_CONFIG = {
     
     // Products
     PRODUCTS: '/products',
+    PRODUCTS_PAGE: '/products/page',
     PRODUCT_SEARCH: '/products/search',
+    PRODUCT_SUGGEST: '/products/suggest',
+    PRODUCTS_BATCH: '/products/batch',
+    PRODUCTS_CHANGES: '/products/changes',
+    PRODUCTS_TRENDING: '/products/trending',
     PRODUCT_CREATE: '/products',
     PRODUCT_UPDATE: '/products',
     PRODUCT_DELETE: '/products',
@@ -37,6 +42,9 @@ export const API_CONFIG = {
     // Cart
     CART: '/cart',
     
+    // Stock alerts
+    STOCK_ALERTS: '/stock-alerts',
+    
     // Orders
     ORDERS: '/orders',
     ADMIN_ORDERS_ALL: '/orders/admin/all',
@@ -77,9 +85,14 @@ export const getHeaders = (token = null) => {
   return headers;
 };
 
+// Réponses GET mémorisées par URL avec leur ETag : le serveur répond 304 si rien n'a changé
+const etagCache = new Map();
+
 // API request helper with better error handling
 export const apiRequest = async (endpoint, options = {}) => {
   const url = `${API_CONFIG.BASE_URL}${endpoint}`;
+  const isGet = !options.method || options.method === 'GET';
+  const cached = isGet ? etagCache.get(url) : null;
   
   try {
     console.log(`API Request: ${options.method || 'GET'} ${url}`);
@@ -88,10 +101,16 @@ export const apiRequest = async (endpoint, options = {}) => {
       ...options,
       headers: {
         ...getHeaders(),
+        ...(cached ? { 'If-None-Match': cached.etag } : {}),
         ...options.headers,
       },
     });
 
+    if (response.status === 304 && cached) {
+      console.log(`API Response: ${url} - Not modified`);
+      return cached.data;
+    }
+
     if (!response.ok) {
       let errorMessage = `HTTP error! status: ${response.status}`;
       try {
@@ -117,6 +136,10 @@ export const apiRequest = async (endpoint, options = {}) => {
 
     const data = await response.json();
     console.log(`API Response: ${url}`, data);
+    const etag = response.headers.get('etag');
+    if (isGet && etag) {
+      etagCache.set(url, { etag, data });
+    }
     return data;
   } catch (error) {
     console.error('API Request Error:', error);
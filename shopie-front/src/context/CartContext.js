@@ -14,6 +14,8 @@ export const useCart = () => {
 
 export const CartProvider = ({ children }) => {
   const [cartItems, setCartItems] = useState([]);
+  const [cartTotal, setCartTotal] = useState(0);
+  const [cartCount, setCartCount] = useState(0);
   const [loading, setLoading] = useState(false);
   const { authenticatedRequest, user } = useAuth();
 
@@ -21,18 +23,31 @@ export const CartProvider = ({ children }) => {
     if (user) {
       loadCart();
     } else {
-      setCartItems([]);
+      resetCart();
     }
   }, [user]);
 
+  const resetCart = () => {
+    setCartItems([]);
+    setCartTotal(0);
+    setCartCount(0);
+  };
+
+  // Le serveur renvoie { items, total, itemCount } : pas de recalcul côté client
+  const applyCart = (response) => {
+    setCartItems(response?.items || []);
+    setCartTotal(Number(response?.total) || 0);
+    setCartCount(response?.itemCount || 0);
+  };
+
   const loadCart = async () => {
     try {
       setLoading(true);
       const response = await authenticatedRequest(API_CONFIG.ENDPOINTS.CART);
-      setCartItems(response || []);
+      applyCart(response);
     } catch (error) {
       console.error('Error loading cart:', error);
-      setCartItems([]);
+      resetCart();
     } finally {
       setLoading(false);
     }
@@ -40,11 +55,11 @@ export const CartProvider = ({ children }) => {
 
   const addToCart = async (productId, quantite = 1) => {
     try {
-      await authenticatedRequest(API_CONFIG.ENDPOINTS.CART, {
+      const response = await authenticatedRequest(API_CONFIG.ENDPOINTS.CART, {
         method: 'POST',
         body: JSON.stringify({ productId, quantite }),
       });
-      await loadCart(); // Refresh cart
+      applyCart(response); // Le panier mis à jour est renvoyé par l'ajout
       return { success: true };
     } catch (error) {
       console.error('Error adding to cart:', error);
@@ -83,7 +98,7 @@ export const CartProvider = ({ children }) => {
       await authenticatedRequest(API_CONFIG.ENDPOINTS.CART, {
         method: 'DELETE',
       });
-      setCartItems([]);
+      resetCart();
       return { success: true };
     } catch (error) {
       console.error('Error clearing cart:', error);
@@ -91,15 +106,9 @@ export const CartProvider = ({ children }) => {
     }
   };
 
-  const getCartTotal = () => {
-    return cartItems.reduce((total, item) => {
-      return total + (item.product?.prix || 0) * item.quantite;
-    }, 0);
-  };
+  const getCartTotal = () => cartTotal;
 
-  const getCartItemsCount = () => {
-    return cartItems.reduce((total, item) => total + item.quantite, 0);
-  };
+  const getCartItemsCount = () => cartCount;
 
   const isProductInCart = (productId) => {
     return cartItems.find(item => item.product?.id === productId);
@@ -302,7 +302,7 @@ export default function AdminAnalyticsScreen({ navigation }) {
             value={dashboardStats.lowStockProducts || 0}
             icon="warning-outline"
             color="#FF3B30"
-            subtitle="< 10 unités"
+            subtitle={`< ${dashboardStats.lowStockThreshold || 10} unités`}
           />
         </View>
       </View>
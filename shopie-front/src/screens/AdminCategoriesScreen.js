@@ -130,11 +130,16 @@ export default function AdminCategoriesScreen({ navigation }) {
 
   const deleteCategory = async (categoryId) => {
     try {
-      await authenticatedRequest(`${API_CONFIG.ENDPOINTS.CATEGORY_DELETE}/${categoryId}`, {
+      const job = await authenticatedRequest(`${API_CONFIG.ENDPOINTS.CATEGORY_DELETE}/${categoryId}`, {
         method: 'DELETE',
       });
       
-      Alert.alert('Succès', 'Catégorie supprimée avec succès');
+      if (job?.status === 'RUNNING') {
+        // Grande catégorie : les produits sont détachés en arrière-plan
+        Alert.alert('Suppression en cours', `${job.totalProducts} produits sont en cours de détachement`);
+      } else {
+        Alert.alert('Succès', 'Catégorie supprimée avec succès');
+      }
       loadCategories();
     } catch (error) {
       console.error('Error deleting category:', error);
@@ -149,7 +154,9 @@ export default function AdminCategoriesScreen({ navigation }) {
         <Text style={styles.categoryDescription} numberOfLines={2}>
           {item.description || 'Aucune description'}
         </Text>
-        <Text style={styles.categoryId}>ID: {item.id}</Text>
+        <Text style={styles.categoryId}>
+          ID: {item.id} · {item.subtreeProductCount ?? 0} produit(s), {item.subtreeInStockCount ?? 0} en stock
+        </Text>
       </View>
       <View style={styles.categoryActions}>
         <TouchableOpacity
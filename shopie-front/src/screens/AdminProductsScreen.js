@@ -112,7 +112,16 @@ export default function AdminProductsScreen({ navigation }) {
     setModalVisible(true);
   };
 
-  const openEditModal = (product) => {
+  const openEditModal = async (item) => {
+    // La liste ne contient que les champs des cartes : charger la fiche complète
+    let product;
+    try {
+      product = await authenticatedRequest(`${API_CONFIG.ENDPOINTS.PRODUCTS}/${item.id}`);
+    } catch (error) {
+      console.error('Error loading product:', error);
+      Alert.alert('Erreur', 'Impossible de charger le produit');
+      return;
+    }
     setEditingProduct(product);
     setFormData({
       nom: product.nom,
@@ -313,11 +322,11 @@ export default function AdminProductsScreen({ navigation }) {
     <View style={styles.productCard}>
       <View style={styles.productInfo}>
         <Text style={styles.productName}>{item.nom}</Text>
-        {item.category && (
-          <Text style={styles.productCategory}>{item.category.nom}</Text>
+        {item.categoryNom && (
+          <Text style={styles.productCategory}>{item.categoryNom}</Text>
         )}
         <Text style={styles.productDescription} numberOfLines={2}>
-          {item.description || 'Aucune description'}
+          {item.resume || 'Aucune description'}
         </Text>
         <Text style={styles.productPrice}>{item.prix}€</Text>
         <Text style={styles.productStock}>Stock: {item.stock}</Text>
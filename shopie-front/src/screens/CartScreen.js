@@ -97,7 +97,7 @@ export default function CartScreen({ navigation }) {
           uri: item.product?.imageUrl && item.product.imageUrl.startsWith('http') 
             ? item.product.imageUrl 
             : item.product?.imageUrl 
-              ? `${API_CONFIG.BASE_URL}${item.product.imageUrl}`
+              ? `${API_CONFIG.BASE_URL}${item.product.imageUrl}?size=thumb`
               : 'https://via.placeholder.com/80x80?text=No+Image'
         }}
         style={styles.productImage}
@@ -115,7 +115,7 @@ export default function CartScreen({ navigation }) {
           {item.product?.prix?.toFixed(2)} € / unité
         </Text>
         <Text style={styles.totalPrice}>
-          Total: {((item.product?.prix || 0) * item.quantite).toFixed(2)} €
+          Total: {Number(item.lineTotal || 0).toFixed(2)} €
         </Text>
       </View>
 
@@ -184,7 +184,7 @@ export default function CheckoutScreen({ navigation }) {
           </Text>
           <Text style={styles.itemQuantity}>x{item.quantite}</Text>
           <Text style={styles.itemPrice}>
-            {((item.product?.prix || 0) * item.quantite).toFixed(2)} €
+            {Number(item.lineTotal || 0).toFixed(2)} €
           </Text>
         </View>
       ))}
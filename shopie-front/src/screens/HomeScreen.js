@@ -18,6 +18,8 @@ import { API_CONFIG } from '../config/api';
 
 export default function HomeScreen({ navigation }) {
   const [products, setProducts] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [categories, setCategories] = useState([]);
   const [loading, setLoading] = useState(false);
   const [refreshing, setRefreshing] = useState(false);
@@ -40,11 +42,22 @@ export default function HomeScreen({ navigation }) {
     loadCategories();
   }, []);
 
+  const PAGE_SIZE = 20;
+
+  // Catalogue paginé par curseur : seule la première page est chargée au lancement
+  const fetchProductPage = async (categoryId, cursor) => {
+    const params = [`limit=${PAGE_SIZE}`];
+    if (categoryId) params.push(`categoryId=${categoryId}`);
+    if (cursor) params.push(`cursor=${encodeURIComponent(cursor)}`);
+    return authenticatedRequest(`${API_CONFIG.ENDPOINTS.PRODUCTS_PAGE}?${params.join('&')}`);
+  };
+
   const loadProducts = async () => {
     try {
       setLoading(true);
-      const response = await authenticatedRequest(API_CONFIG.ENDPOINTS.PRODUCTS);
-      setProducts(response || []);
+      const page = await fetchProductPage(null, null);
+      setProducts(page?.items || []);
+      setNextCursor(page?.nextCursor || null);
     } catch (error) {
       console.error('Error loading products:', error);
       Alert.alert('Erreur', 'Impossible de charger les produits');
@@ -53,6 +66,20 @@ export default function HomeScreen({ navigation }) {
     }
   };
 
+  const loadMoreProducts = async () => {
+    if (!nextCursor || loadingMore || searchQuery) return;
+    try {
+      setLoadingMore(true);
+      const page = await fetchProductPage(selectedCategory?.id, nextCursor);
+      setProducts(prev => [...prev, ...(page?.items || [])]);
+      setNextCursor(page?.nextCursor || null);
+    } catch (error) {
+      console.error('Error loading more products:', error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const loadCategories = async () => {
     try {
       const response = await authenticatedRequest(API_CONFIG.ENDPOINTS.CATEGORIES);
@@ -76,9 +103,10 @@ export default function HomeScreen({ navigation }) {
     try {
       setLoading(true);
       const response = await authenticatedRequest(
-        `${API_CONFIG.ENDPOINTS.PRODUCT_SEARCH}?nom=${encodeURIComponent(query)}`
+        `${API_CONFIG.ENDPOINTS.PRODUCT_SEARCH}?nom=${encodeURIComponent(query)}&size=50`
       );
-      setProducts(response || []);
+      setProducts(response?.content || []);
+      setNextCursor(null);
     } catch (error) {
       console.error('Error searching products:', error);
       Alert.alert('Erreur', 'Erreur lors de la recherche');
@@ -90,10 +118,9 @@ export default function HomeScreen({ navigation }) {
   const loadProductsByCategory = async (categoryId) => {
     try {
       setLoading(true);
-      const response = await authenticatedRequest(
-        `${API_CONFIG.ENDPOINTS.PRODUCTS_BY_CATEGORY}/${categoryId}`
-      );
-      setProducts(response || []);
+      const page = await fetchProductPage(categoryId, null);
+      setProducts(page?.items || []);
+      setNextCursor(page?.nextCursor || null);
     } catch (error) {
       console.error('Error loading products by category:', error);
       Alert.alert('Erreur', 'Erreur lors du filtrage par catégorie');
@@ -188,7 +215,7 @@ export default function HomeScreen({ navigation }) {
             uri: item.imageUrl && item.imageUrl.startsWith('http') 
               ? item.imageUrl 
               : item.imageUrl 
-                ? `${API_CONFIG.BASE_URL}${item.imageUrl}`
+                ? `${API_CONFIG.BASE_URL}${item.imageUrl}?size=thumb`
                 : 'https://via.placeholder.com/150x150?text=No+Image'
           }}
           style={styles.productImage}
@@ -206,11 +233,11 @@ export default function HomeScreen({ navigation }) {
           <Text style={styles.productName} numberOfLines={2}>
             {item.nom}
           </Text>
-          {item.category && (
-            <Text style={styles.productCategory}>{item.category.nom}</Text>
+          {item.categoryNom && (
+            <Text style={styles.productCategory}>{item.categoryNom}</Text>
           )}
           <Text style={styles.productDescription} numberOfLines={2}>
-            {item.description}
+            {item.resume}
           </Text>
           <View style={styles.productFooter}>
             <Text style={styles.productPrice}>
@@ -378,6 +405,8 @@ export default function HomeScreen({ navigation }) {
         refreshControl={
           <RefreshControl refreshing={refreshing} onRefresh={onRefresh} />
         }
+        onEndReached={loadMoreProducts}
+        onEndReachedThreshold={0.5}
         ListHeaderComponent={
           products.length > 0 && (selectedCategory || searchQuery) ? (
             <View style={styles.resultsHeader}>
@@ -1,26 +1,81 @@
-import React from 'react';
+import React, { useState, useEffect } from 'react';
 import {
   View,
   Text,
   Image,
   StyleSheet,
   ScrollView,
+  FlatList,
+  TouchableOpacity,
+  Alert,
 } from 'react-native';
-import { API_CONFIG } from '../config/api';
+import { Ionicons } from '@expo/vector-icons';
+import { API_CONFIG, apiRequest } from '../config/api';
+import { useAuth } from '../context/AuthContext';
 
-export default function ProductDetailScreen({ route }) {
-  const { product } = route.params;
+// size : variante servie par le backend (thumb, card, detail)
+const imageUri = (imageUrl, placeholder, size) => (
+  imageUrl && imageUrl.startsWith('http')
+    ? imageUrl
+    : imageUrl
+      ? `${API_CONFIG.BASE_URL}${imageUrl}?size=${size}`
+      : placeholder
+);
+
+export default function ProductDetailScreen({ route, navigation }) {
+  // Les listes ne transmettent qu'une carte produit : la fiche complète est chargée ici
+  const [product, setProduct] = useState(route.params.product);
+  const [alsoBought, setAlsoBought] = useState([]);
+  const [stockAlert, setStockAlert] = useState(false);
+  const { authenticatedRequest, user } = useAuth();
+
+  useEffect(() => {
+    apiRequest(`${API_CONFIG.ENDPOINTS.PRODUCTS}/${route.params.product.id}`)
+      .then(setProduct)
+      .catch((error) => console.error('Error loading product:', error));
+    apiRequest(`${API_CONFIG.ENDPOINTS.PRODUCTS}/${route.params.product.id}/also-bought?limit=10`)
+      .then(setAlsoBought)
+      .catch((error) => console.error('Error loading related products:', error));
+  }, [route.params.product.id]);
+
+  useEffect(() => {
+    if (!user) {
+      return;
+    }
+    authenticatedRequest(API_CONFIG.ENDPOINTS.STOCK_ALERTS)
+      .then((ids) => setStockAlert(ids.includes(route.params.product.id)))
+      .catch((error) => console.error('Error loading stock alerts:', error));
+  }, [route.params.product.id, user]);
+
+  const toggleStockAlert = async () => {
+    try {
+      await authenticatedRequest(`${API_CONFIG.ENDPOINTS.STOCK_ALERTS}/${product.id}`, {
+        method: stockAlert ? 'DELETE' : 'POST',
+      });
+      setStockAlert(!stockAlert);
+    } catch (error) {
+      Alert.alert('Erreur', error.message || 'Impossible de modifier l\'alerte');
+    }
+  };
+
+  const renderRelated = ({ item }) => (
+    <TouchableOpacity
+      style={styles.relatedCard}
+      onPress={() => navigation.push('ProductDetail', { product: item })}
+    >
+      <Image
+        source={{ uri: imageUri(item.imageUrl, 'https://via.placeholder.com/120x120?text=No+Image', 'thumb') }}
+        style={styles.relatedImage}
+      />
+      <Text style={styles.relatedName} numberOfLines={2}>{item.nom}</Text>
+      <Text style={styles.relatedPrice}>{item.prix?.toFixed(2)} €</Text>
+    </TouchableOpacity>
+  );
 
   return (
     <ScrollView style={styles.container}>
       <Image
-        source={{ 
-          uri: product.imageUrl && product.imageUrl.startsWith('http') 
-            ? product.imageUrl 
-            : product.imageUrl 
-              ? `${API_CONFIG.BASE_URL}${product.imageUrl}`
-              : 'https://via.placeholder.com/400x300?text=No+Image'
-        }}
+        source={{ uri: imageUri(product.imageUrl, 'https://via.placeholder.com/400x300?text=No+Image', 'detail') }}
         style={styles.productImage}
         defaultSource={{ uri: 'https://via.placeholder.com/400x300?text=No+Image' }}
       />
@@ -33,11 +88,37 @@ export default function ProductDetailScreen({ route }) {
           {/* Stock display removed - products always appear available */}
         </View>
 
+        {user && product.stock === 0 && (
+          <TouchableOpacity style={styles.outOfStockContainer} onPress={toggleStockAlert}>
+            <Ionicons
+              name={stockAlert ? 'notifications' : 'notifications-outline'}
+              size={20}
+              color="#ef4444"
+            />
+            <Text style={styles.outOfStockText}>
+              {stockAlert ? 'Alerte activée : vous serez prévenu' : "M'alerter du retour en stock"}
+            </Text>
+          </TouchableOpacity>
+        )}
+
         <Text style={styles.sectionTitle}>Description</Text>
         <Text style={styles.description}>
-          {product.description || 'Aucune description disponible.'}
+          {product.description || product.resume || 'Aucune description disponible.'}
         </Text>
 
+        {alsoBought.length > 0 && (
+          <>
+            <Text style={styles.sectionTitle}>Les clients ont aussi acheté</Text>
+            <FlatList
+              data={alsoBought}
+              renderItem={renderRelated}
+              keyExtractor={(item) => item.id.toString()}
+              horizontal
+              showsHorizontalScrollIndicator={false}
+            />
+          </>
+        )}
+
 
       </View>
     </ScrollView>
@@ -94,6 +175,26 @@ const styles = StyleSheet.create({
     color: '#666',
     marginBottom: 20,
   },
+  relatedCard: {
+    width: 130,
+    marginRight: 12,
+  },
+  relatedImage: {
+    width: 130,
+    height: 130,
+    borderRadius: 10,
+    backgroundColor: '#f3f4f6',
+  },
+  relatedName: {
+    fontSize: 14,
+    marginTop: 6,
+  },
+  relatedPrice: {
+    fontSize: 14,
+    fontWeight: 'bold',
+    color: '#6366f1',
+    marginTop: 2,
+  },
   outOfStockContainer: {
     flexDirection: 'row',
     alignItems: 'center',
@@ -102,6 +203,7 @@ const styles = StyleSheet.create({
     padding: 15,
     borderRadius: 10,
     marginTop: 20,
+    marginBottom: 20,
   },
   outOfStockText: {
     color: '#ef4444',
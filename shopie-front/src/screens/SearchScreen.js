@@ -22,6 +22,7 @@ export default function SearchScreen({ navigation, route }) {
   const [selectedCategory, setSelectedCategory] = useState(route.params?.initialCategory || null);
   const [priceRange, setPriceRange] = useState({ min: '', max: '' });
   const [sortBy, setSortBy] = useState('name'); // name, price_asc, price_desc
+  const [suggestions, setSuggestions] = useState([]);
 
   const { authenticatedRequest, user } = useAuth();
 
@@ -41,6 +42,33 @@ export default function SearchScreen({ navigation, route }) {
     }
   };
 
+  // Autocomplétion légère : seuls les libellés sont renvoyés par le serveur
+  const handleQueryChange = async (text) => {
+    setSearchQuery(text);
+    if (text.trim().length < 2) {
+      setSuggestions([]);
+      return;
+    }
+    try {
+      const response = await authenticatedRequest(
+        `${API_CONFIG.ENDPOINTS.PRODUCT_SUGGEST}?q=${encodeURIComponent(text)}`
+      );
+      setSuggestions(response || []);
+    } catch (error) {
+      setSuggestions([]);
+    }
+  };
+
+  const handleSuggestionPress = (suggestion) => {
+    setSuggestions([]);
+    if (suggestion.type === 'CATEGORY') {
+      setSearchQuery('');
+      setSelectedCategory(categories.find(category => category.id === suggestion.id) || null);
+    } else {
+      setSearchQuery(suggestion.label);
+    }
+  };
+
   const performSearch = async () => {
     try {
       setLoading(true);
@@ -52,10 +80,14 @@ export default function SearchScreen({ navigation, route }) {
           `${API_CONFIG.ENDPOINTS.PRODUCTS_BY_CATEGORY}/${selectedCategory.id}`
         );
       } else if (searchQuery.trim()) {
-        // Recherche par nom
-        response = await authenticatedRequest(
-          `${API_CONFIG.ENDPOINTS.PRODUCT_SEARCH}?nom=${encodeURIComponent(searchQuery)}`
-        );
+        // Recherche par nom, description et catégorie (résultats paginés, triés par pertinence)
+        const searchUrl = `${API_CONFIG.ENDPOINTS.PRODUCT_SEARCH}?nom=${encodeURIComponent(searchQuery)}&size=100`;
+        let page = await authenticatedRequest(searchUrl);
+        if (!page?.content?.length) {
+          // Aucun résultat exact : nouvelle tentative tolérante aux fautes de frappe
+          page = await authenticatedRequest(`${searchUrl}&fuzzy=true`);
+        }
+        response = page?.content || [];
       } else {
         // Tous les produits
         response = await authenticatedRequest(API_CONFIG.ENDPOINTS.PRODUCTS);
@@ -66,7 +98,7 @@ export default function SearchScreen({ navigation, route }) {
       // Filtrer par catégorie si une recherche par nom est active
       if (selectedCategory && searchQuery.trim()) {
         filteredProducts = filteredProducts.filter(
-          product => product.category?.id === selectedCategory.id
+          product => product.categoryId === selectedCategory.id
         );
       }
 
@@ -121,7 +153,7 @@ export default function SearchScreen({ navigation, route }) {
             uri: item.imageUrl && item.imageUrl.startsWith('http') 
               ? item.imageUrl 
               : item.imageUrl 
-                ? `${API_CONFIG.BASE_URL}${item.imageUrl}`
+                ? `${API_CONFIG.BASE_URL}${item.imageUrl}?size=thumb`
                 : 'https://via.placeholder.com/150x150?text=No+Image'
           }}
           style={styles.productImage}
@@ -134,11 +166,11 @@ export default function SearchScreen({ navigation, route }) {
           <Text style={styles.productName} numberOfLines={2}>
             {item.nom}
           </Text>
-          {item.category && (
-            <Text style={styles.productCategory}>{item.category.nom}</Text>
+          {item.categoryNom && (
+            <Text style={styles.productCategory}>{item.categoryNom}</Text>
           )}
           <Text style={styles.productDescription} numberOfLines={2}>
-            {item.description}
+            {item.resume}
           </Text>
           <View style={styles.productFooter}>
             <Text style={styles.productPrice}>
@@ -179,10 +211,28 @@ export default function SearchScreen({ navigation, route }) {
                 style={styles.searchInput}
                 placeholder="Nom du produit..."
                 value={searchQuery}
-                onChangeText={setSearchQuery}
+                onChangeText={handleQueryChange}
                 placeholderTextColor="#94a3b8"
               />
             </View>
+            {suggestions.length > 0 && (
+              <View style={styles.suggestionsContainer}>
+                {suggestions.map((suggestion) => (
+                  <TouchableOpacity
+                    key={`${suggestion.type}-${suggestion.id}`}
+                    style={styles.suggestionItem}
+                    onPress={() => handleSuggestionPress(suggestion)}
+                  >
+                    <Ionicons
+                      name={suggestion.type === 'CATEGORY' ? 'pricetag-outline' : 'search-outline'}
+                      size={16}
+                      color="#64748b"
+                    />
+                    <Text style={styles.suggestionText}>{suggestion.label}</Text>
+                  </TouchableOpacity>
+                ))}
+              </View>
+            )}
           </View>
 
           {/* Catégorie */}
@@ -406,6 +456,24 @@ const styles = StyleSheet.create({
     color: '#334155',
     fontWeight: '500',
   },
+  suggestionsContainer: {
+    marginTop: 8,
+    backgroundColor: '#ffffff',
+    borderRadius: 12,
+    borderWidth: 1,
+    borderColor: '#e2e8f0',
+  },
+  suggestionItem: {
+    flexDirection: 'row',
+    alignItems: 'center',
+    gap: 8,
+    paddingHorizontal: 14,
+    paddingVertical: 10,
+  },
+  suggestionText: {
+    fontSize: 15,
+    color: '#334155',
+  },
   categoryFilter: {
     flexDirection: 'row',
     gap: 10,